@@ -0,0 +1,74 @@
+package com.codegym.jira.bugtracking;
+
+import com.codegym.jira.common.error.DataConflictException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Closure tables of task and project hierarchies: a row (ancestor, descendant, depth) for every pair of
+ * node and its ancestor, including the node itself with depth 0.
+ * Ancestors, descendants and subtree size are one indexed lookup instead of recursive query.
+ * Rows are written on create and re-parent, removed by FK cascade on delete.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClosureRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(ObjectType type, long id, @Nullable Long parentId) {
+        String table = table(type);
+        jdbcTemplate.update("INSERT INTO " + table + " (ancestor_id, descendant_id, depth) VALUES (?, ?, 0)", id, id);
+        if (parentId != null) {
+            jdbcTemplate.update("INSERT INTO " + table + " (ancestor_id, descendant_id, depth) " +
+                    "SELECT ancestor_id, ?, depth + 1 FROM " + table + " WHERE descendant_id = ?", id, parentId);
+        }
+    }
+
+    /**
+     * Re-link subtree of {@code id} under the new parent
+     *
+     * @throws DataConflictException if the new parent is the node itself or its descendant
+     */
+    public void move(ObjectType type, long id, @Nullable Long oldParentId, @Nullable Long newParentId) {
+        if (Objects.equals(oldParentId, newParentId)) {
+            return;
+        }
+        String table = table(type);
+        if (newParentId != null && isAncestor(table, id, newParentId)) {
+            throw new DataConflictException("Cannot move " + type.name().toLowerCase(Locale.ENGLISH) + " id=" + id + " under its own subtree");
+        }
+        //  unlink subtree from old ancestors
+        jdbcTemplate.update("DELETE FROM " + table + " WHERE descendant_id IN (SELECT descendant_id FROM " + table + " WHERE ancestor_id = ?) " +
+                "AND ancestor_id NOT IN (SELECT descendant_id FROM " + table + " WHERE ancestor_id = ?)", id, id);
+        if (newParentId != null) {
+            //  every new ancestor x every node of subtree
+            jdbcTemplate.update("INSERT INTO " + table + " (ancestor_id, descendant_id, depth) " +
+                    "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 FROM " + table + " a CROSS JOIN " + table + " d " +
+                    "WHERE a.descendant_id = ? AND d.ancestor_id = ?", newParentId, id);
+        }
+    }
+
+    public int countDescendants(ObjectType type, long id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table(type) + " WHERE ancestor_id = ? AND depth > 0",
+                Integer.class, id);
+        return count == null ? 0 : count;
+    }
+
+    private boolean isAncestor(String table, long ancestorId, long descendantId) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + table +
+                " WHERE ancestor_id = ? AND descendant_id = ?)", Boolean.class, ancestorId, descendantId));
+    }
+
+    private static String table(ObjectType type) {
+        return switch (type) {
+            case PROJECT -> "project_closure";
+            case TASK -> "task_closure";
+            case SPRINT -> throw new IllegalArgumentException("Sprints have no hierarchy");
+        };
+    }
+}
@@ -120,10 +120,7 @@ public class Handlers {
 
         @Transactional
         public void createUserBelong(long id, ObjectType type, long userId, String userTypeCode) {
-            if (belongRepository.findActiveAssignment(id, type, userId, userTypeCode).isEmpty()) {
-                UserBelong belong = new UserBelong(id, type, userId, userTypeCode);
-                belongRepository.save(belong);
-            }
+            belongRepository.insertIfAbsent(id, type.ordinal(), userId, userTypeCode);
         }
     }
 }
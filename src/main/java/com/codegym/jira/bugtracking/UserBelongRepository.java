@@ -1,6 +1,7 @@
 package com.codegym.jira.bugtracking;
 
 import com.codegym.jira.common.BaseRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -22,4 +23,11 @@ public interface UserBelongRepository extends BaseRepository<UserBelong> {
 
     @Query("SELECT u FROM UserBelong u WHERE u.objectId =?1 AND u.objectType=?2 and u.userId=?3 and u.userTypeCode=?4 and u.endpoint IS NULL")
     Optional<UserBelong> findActiveAssignment(long objectId, ObjectType objectType, long userId, String userTypeCode);
+
+    // single statement instead of findActiveAssignment + save, UK_USER_BELONG is partial (endpoint is null)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_belong (object_id, object_type, user_id, user_type_code, startpoint) VALUES (:objectId, :objectType, :userId, :userTypeCode, now()) " +
+            "ON CONFLICT (object_id, object_type, user_id, user_type_code) WHERE endpoint IS NULL DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(long objectId, int objectType, long userId, String userTypeCode);
 }
@@ -0,0 +1,27 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.bugtracking.attachment.to.AttachmentStatsTo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+//  storage stats of all attachments, for admins only
+@RestController
+@RequestMapping(value = AdminAttachmentController.REST_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Slf4j
+public class AdminAttachmentController {
+    static final String REST_URL = "/api/admin/attachments";
+    private final AttachmentBlobRepository blobRepository;
+
+    @GetMapping("/stats")
+    public List<AttachmentStatsTo> getStats() {
+        log.info("get attachment stats");
+        return blobRepository.getStats();
+    }
+}
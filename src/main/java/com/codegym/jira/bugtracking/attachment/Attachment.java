@@ -34,6 +34,10 @@ public class Attachment extends NamedEntity {
     @Column(name = "user_id", nullable = false)
     @NotNull
     private Long userId;
+    //  SHA-256 of the content in AttachmentStore, null for files stored before it
+    @Column(name = "content_hash")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String contentHash;
 
     public Attachment(Long id, String fileLink, Long objectId, ObjectType objectType, Long userId, String name) {
         super(id, name);
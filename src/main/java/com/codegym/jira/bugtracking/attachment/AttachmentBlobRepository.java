@@ -0,0 +1,74 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.bugtracking.attachment.to.AttachmentStatsTo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reference counted content-addressed blobs, {@code hash} is hex SHA-256 of the content
+ */
+@Repository
+@RequiredArgsConstructor
+class AttachmentBlobRepository {
+    private static final String GZIP = "gzip";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    //  serialize store and reclaim of the same content until the end of transaction (on all nodes)
+    void lock(String hash) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> {
+        }, Long.parseUnsignedLong(hash.substring(0, 16), 16));
+    }
+
+    /**
+     * @param storedSize size of the stored file, it may be compressed
+     */
+    void acquire(String hash, long size, long storedSize, boolean gzip) {
+        jdbcTemplate.update("""
+                INSERT INTO attachment_blob (hash, size, stored_size, encoding, ref_count) VALUES (?, ?, ?, ?, 1)
+                ON CONFLICT (hash) DO UPDATE SET ref_count = attachment_blob.ref_count + 1,
+                                                 stored_size = excluded.stored_size, encoding = excluded.encoding""",
+                hash, size, storedSize, gzip ? GZIP : null);
+    }
+
+    void release(String hash) {
+        jdbcTemplate.update("UPDATE attachment_blob SET ref_count = ref_count - 1 WHERE hash = ?", hash);
+    }
+
+    boolean isUsed(String hash) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM attachment_blob WHERE hash = ? AND ref_count > 0)", Boolean.class, hash));
+    }
+
+    void delete(String hash) {
+        jdbcTemplate.update("DELETE FROM attachment_blob WHERE hash = ?", hash);
+    }
+
+    //  content bytes, null if the blob is unknown
+    @Nullable
+    Long getSize(String hash) {
+        return DataAccessUtils.singleResult(
+                jdbcTemplate.queryForList("SELECT size FROM attachment_blob WHERE hash = ?", Long.class, hash));
+    }
+
+    //  by object type, sizes of shared content are counted for every attachment
+    List<AttachmentStatsTo> getStats() {
+        return jdbcTemplate.query("""
+                        SELECT a.object_type, count(*) AS files, count(b.encoding) AS compressed,
+                               sum(b.size) AS size, sum(b.stored_size) AS stored_size
+                        FROM attachment a JOIN attachment_blob b ON b.hash = a.content_hash
+                        GROUP BY a.object_type ORDER BY a.object_type""",
+                (rs, rowNum) -> new AttachmentStatsTo(ObjectType.values()[rs.getInt("object_type")], rs.getLong("files"),
+                        rs.getLong("compressed"), rs.getLong("size"), rs.getLong("stored_size")));
+    }
+
+    List<String> findUnused() {
+        return jdbcTemplate.queryForList("SELECT hash FROM attachment_blob WHERE ref_count <= 0", String.class);
+    }
+}
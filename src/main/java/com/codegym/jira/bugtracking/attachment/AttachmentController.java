@@ -2,10 +2,13 @@ package com.codegym.jira.bugtracking.attachment;
 
 import com.codegym.jira.bugtracking.ObjectType;
 import com.codegym.jira.common.BaseHandler;
+import com.codegym.jira.common.error.NotFoundException;
 import com.codegym.jira.login.AuthUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +17,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Locale;
 
@@ -26,38 +33,62 @@ import static com.codegym.jira.common.BaseHandler.createdResponse;
 public class AttachmentController {
     static final String REST_URL = "/api/attachments";
     private final AttachmentRepository repository;
+    private final AttachmentService service;
+    private final AttachmentStore store;
+    private final AttachmentBlobRepository blobRepository;
+    private final AttachmentLinkRepository linkRepository;
 
-    @Transactional
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<Attachment> upload(@RequestPart MultipartFile file, @RequestParam ObjectType type,
                                              @RequestParam Long objectId, @AuthenticationPrincipal AuthUser authUser) {
-        log.debug("upload file {} to folder {}", file.getOriginalFilename(), type.toString().toLowerCase(Locale.ENGLISH));
-        String path = FileUtil.getPath(type.toString());
-        Attachment attachment = new Attachment(null, path, objectId, type, authUser.id(), file.getOriginalFilename());
-        Attachment created = repository.save(attachment);
-        String fileName = attachment.id() + "_" + file.getOriginalFilename();
-        attachment.setFileLink(attachment.getFileLink() + fileName);
-        FileUtil.upload(file, path, fileName);
+        log.debug("upload file {} for {} {}", file.getOriginalFilename(), type.toString().toLowerCase(Locale.ENGLISH), objectId);
+        return BaseHandler.createdResponse(REST_URL, service.upload(file, type, objectId, authUser.id()));
+    }
+
+    /**
+     * Upload the request body as file content, without multipart buffering: large files are written once
+     *
+     * @param name file name
+     */
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Attachment> uploadStream(@RequestParam ObjectType type, @RequestParam long objectId, @RequestParam String name,
+                                                   HttpServletRequest request, @AuthenticationPrincipal AuthUser authUser) throws IOException {
+        log.debug("upload stream {} for {} {}", name, type.toString().toLowerCase(Locale.ENGLISH), objectId);
+        Attachment created = service.upload(request.getInputStream(), request.getContentLengthLong(), request.getContentType(),
+                name, type, objectId, authUser.id());
         return BaseHandler.createdResponse(REST_URL, created);
     }
 
+    //  the file is chosen by the deleted row: a concurrent migration may have moved it to the store
+    @Transactional
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void delete(@PathVariable Long id) {
         log.debug("delete file id = {}", id);
-        Attachment attachment = repository.getExisted(id);
-        repository.deleteExisted(id);
-        FileUtil.delete(attachment.getFileLink());
+        AttachmentLinkRepository.AttachmentLink link = linkRepository.delete(id);
+        if (link == null) {
+            throw new NotFoundException("Entity with id=" + id + " not found");
+        }
+        if (link.contentHash() != null) {
+            store.release(link.contentHash());
+        } else {
+            FileUtil.delete(link.fileLink());
+        }
     }
 
+    /**
+     * Download with conditional GET (If-None-Match, If-Modified-Since) and byte ranges (Range, If-Range).
+     * Content stored gzipped is sent as is to clients accepting gzip, decompressed for others.
+     */
     @GetMapping(value = "/download/{id}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public ResponseEntity<Resource> download(@PathVariable long id) {
+    public void download(@PathVariable long id, HttpServletRequest request, HttpServletResponse response) throws IOException {
         log.debug("download file id = {}", id);
         Attachment attachment = repository.getExisted(id);
-        Resource resource = FileUtil.download(attachment.getFileLink());
-        return ResponseEntity.ok()
-                .header("Content-Disposition", "attachment; filename=" + resource.getFilename())
-                .body(resource);
+        Path path = Paths.get(attachment.getFileLink());
+        String hash = attachment.getContentHash();
+        boolean gzip = hash != null && AttachmentStore.isGzip(path);
+        FileDownload.send(request, response, path, hash, gzip, gzip ? blobRepository.getSize(hash) : null,
+                ContentDisposition.attachment().filename(attachment.getName(), StandardCharsets.UTF_8).build().toString());
     }
 
     @GetMapping("/for-object")
@@ -0,0 +1,56 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * File links of attachments for {@link AttachmentMigrator} and deletion
+ */
+@Repository
+@RequiredArgsConstructor
+class AttachmentLinkRepository {
+    private static final RowMapper<AttachmentLink> MAPPER =
+            (rs, rowNum) -> new AttachmentLink(rs.getLong("id"), rs.getString("file_link"), rs.getString("content_hash"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    record AttachmentLink(long id, String fileLink, @Nullable String contentHash) {
+    }
+
+    List<AttachmentLink> findAfter(long id, int limit) {
+        return jdbcTemplate.query("SELECT id, file_link, content_hash FROM attachment WHERE id > ? ORDER BY id LIMIT ?",
+                MAPPER, id, limit);
+    }
+
+    //  null if it is deleted or locked by migration on other node
+    @Nullable
+    AttachmentLink lock(long id) {
+        List<AttachmentLink> links = jdbcTemplate.query(
+                "SELECT id, file_link, content_hash FROM attachment WHERE id = ? FOR UPDATE SKIP LOCKED", MAPPER, id);
+        return links.isEmpty() ? null : links.get(0);
+    }
+
+    //  waits for the migration of the row, returns the link as committed by it; null if not found
+    @Nullable
+    AttachmentLink delete(long id) {
+        List<AttachmentLink> links = jdbcTemplate.query(
+                "DELETE FROM attachment WHERE id = ? RETURNING id, file_link, content_hash", MAPPER, id);
+        return links.isEmpty() ? null : links.get(0);
+    }
+
+    void update(long id, String fileLink, String contentHash) {
+        jdbcTemplate.update("UPDATE attachment SET file_link = ?, content_hash = ? WHERE id = ?", fileLink, contentHash, id);
+    }
+
+    Set<String> findOutside(String linkPattern) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT file_link FROM attachment WHERE file_link NOT LIKE ?", String.class, linkPattern));
+    }
+}
@@ -0,0 +1,177 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.bugtracking.attachment.AttachmentLinkRepository.AttachmentLink;
+import com.codegym.jira.common.internal.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Moves attachment files of the old flat layout ({@code ./attachments/task/<id>_<name>}, {@code ./attachments/blobs/<sha256>})
+ * into the sharded {@link AttachmentStore}, in batches of {@code app.attachment-migration.batch-size}
+ * with {@code app.attachment-migration.interval} pause between them.
+ * <p>
+ * A file is hard linked (copied if the file system can't link) to the new path, then {@code file_link} is rewritten
+ * in a transaction per attachment, so requests which have read the old link are still served.
+ * Old files are deleted when the pass over all attachments is finished and no attachment refers to them.
+ */
+@Slf4j
+@Component
+public class AttachmentMigrator implements SchedulingConfigurer {
+    //  LIKE pattern of AttachmentStore.getPath
+    private static final String SHARDED_LINK = FileUtil.getPath(AttachmentStore.BLOBS) + "__/__/%";
+
+    private final AttachmentLinkRepository linkRepository;
+    private final AttachmentBlobRepository blobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties.AttachmentMigrationProps props;
+    private long lastId;
+    private volatile boolean finished;
+
+    public AttachmentMigrator(AttachmentLinkRepository linkRepository, AttachmentBlobRepository blobRepository,
+                              TransactionTemplate transactionTemplate, AppProperties appProperties) {
+        this.linkRepository = linkRepository;
+        this.blobRepository = blobRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.props = appProperties.getAttachmentMigration();
+    }
+
+    @Override
+    public void configureTasks(@NonNull ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(() -> {
+            if (props.isEnabled() && !finished) {
+                finished = !migrateBatch();
+            }
+        }, props.getInterval());
+    }
+
+    /**
+     * @return false when the pass over all attachments is finished (next call starts a new one)
+     */
+    synchronized boolean migrateBatch() {
+        List<AttachmentLink> links = linkRepository.findAfter(lastId, props.getBatchSize());
+        for (AttachmentLink link : links) {
+            if (!isMigrated(link)) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> migrate(link.id()));
+                } catch (RuntimeException e) {
+                    log.warn("attachment {} migration failed: {}", link.id(), e.getMessage());
+                }
+            }
+            lastId = link.id();
+        }
+        if (links.size() == props.getBatchSize()) {
+            return true;
+        }
+        deleteOldFiles();
+        lastId = 0;
+        log.info("attachment migration finished");
+        return false;
+    }
+
+    private void migrate(long id) {
+        AttachmentLink link = linkRepository.lock(id);
+        if (link == null || isMigrated(link)) {
+            return;
+        }
+        Path source = Paths.get(link.fileLink());
+        try {
+            String hash = link.contentHash() != null ? link.contentHash() : hash(source);
+            blobRepository.lock(hash);
+            Path target = AttachmentStore.findStored(hash);
+            if (target == null) {
+                target = AttachmentStore.getPath(hash);
+                linkOrCopy(source, target);
+            }
+            if (link.contentHash() == null) {
+                blobRepository.acquire(hash, Files.size(source), Files.size(target), AttachmentStore.isGzip(target));
+            }
+            linkRepository.update(id, target.toString(), hash);
+            log.debug("attachment {} moved from {} to {}", id, source, target);
+        } catch (NoSuchFileException e) {
+            log.warn("attachment {} file {} not found", id, source);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isMigrated(AttachmentLink link) {
+        String hash = link.contentHash();
+        return hash != null && (link.fileLink().equals(AttachmentStore.getPath(hash, false).toString())
+                || link.fileLink().equals(AttachmentStore.getPath(hash, true).toString()));
+    }
+
+    private static String hash(Path path) throws IOException {
+        MessageDigest digest = AttachmentStore.sha256();
+        try (InputStream in = Files.newInputStream(path);
+             OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            in.transferTo(out);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void linkOrCopy(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, source);
+        } catch (FileAlreadyExistsException e) {
+            //  stored concurrently, the content is the same
+        } catch (IOException | UnsupportedOperationException e) {
+            Path tmpDir = Paths.get(FileUtil.getPath(AttachmentStore.TMP));
+            Files.createDirectories(tmpDir);
+            Path tmp = Files.createTempFile(tmpDir, "migrate", null);
+            try {
+                Files.copy(source, tmp, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                AttachmentStore.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    //  files of flat layout: ./attachments/<type>/<file>, ./attachments/blobs/<file>
+    private void deleteOldFiles() {
+        Set<String> used = linkRepository.findOutside(SHARDED_LINK);
+        Path root = Paths.get(FileUtil.getPath(AttachmentStore.BLOBS)).getParent();
+        if (Files.notExists(root)) {
+            return;
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                if (dir.getFileName().toString().equals(AttachmentStore.TMP)) {
+                    continue;
+                }
+                try (Stream<Path> files = Files.list(dir)) {
+                    files.filter(Files::isRegularFile)
+                            .filter(file -> !used.contains(file.toString()))
+                            .forEach(file -> {
+                                log.debug("delete old file {}", file);
+                                AttachmentStore.deleteIfExists(file);
+                            });
+                }
+            }
+        } catch (IOException e) {
+            log.warn("old attachment files deletion failed: {}", e.getMessage());
+        }
+    }
+}
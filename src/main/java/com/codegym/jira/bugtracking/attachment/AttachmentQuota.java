@@ -0,0 +1,50 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.common.error.NotFoundException;
+import com.codegym.jira.common.error.PayloadTooLargeException;
+import com.codegym.jira.common.internal.config.AppProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Limits of attachment content bytes: per file, per user and per project (with its sprints and tasks),
+ * see {@code app.attachment-quota}
+ */
+@Component
+public class AttachmentQuota {
+    private final AttachmentQuotaRepository repository;
+    private final AppProperties.AttachmentQuotaProps props;
+
+    public AttachmentQuota(AttachmentQuotaRepository repository, AppProperties appProperties) {
+        this.repository = repository;
+        this.props = appProperties.getAttachmentQuota();
+    }
+
+    public long getProjectId(ObjectType type, long objectId) {
+        return repository.findProjectId(type, objectId)
+                .orElseThrow(() -> new NotFoundException("Not found " + type.name().toLowerCase(Locale.ENGLISH) + " with id=" + objectId));
+    }
+
+    /**
+     * @return max bytes of a new attachment
+     */
+    public long getLimit(long userId, long projectId) {
+        long userLeft = props.getUserQuota().toBytes() - repository.getUserUsage(userId);
+        long projectLeft = props.getProjectQuota().toBytes() - repository.getProjectUsage(projectId);
+        return Math.max(0, Math.min(props.getMaxFileSize().toBytes(), Math.min(userLeft, projectLeft)));
+    }
+
+    //  final check within the storing transaction, concurrent uploads of the user or the project wait for it
+    public void check(long userId, long projectId, long size) {
+        repository.lock(userId, projectId);
+        checkLimit(size, getLimit(userId, projectId));
+    }
+
+    static void checkLimit(long size, long limit) {
+        if (size > limit) {
+            throw new PayloadTooLargeException("Attachment exceeds the limit of " + limit + " bytes (file size or quota)");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Content bytes of attachments in content store, shared content is counted for every attachment
+ */
+@Repository
+@RequiredArgsConstructor
+class AttachmentQuotaRepository {
+    //  keys of two-int advisory locks, they don't conflict with bigint ones of AttachmentBlobRepository
+    private static final int USER_LOCK = 1;
+    private static final int PROJECT_LOCK = 2;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    Optional<Long> findProjectId(ObjectType type, long objectId) {
+        String sql = switch (type) {
+            case PROJECT -> "SELECT id FROM project WHERE id = :id";
+            case SPRINT -> "SELECT project_id FROM sprint WHERE id = :id";
+            case TASK -> "SELECT project_id FROM task WHERE id = :id";
+        };
+        List<Long> ids = jdbcTemplate.queryForList(sql, new MapSqlParameterSource("id", objectId), Long.class);
+        return ids.stream().findFirst();
+    }
+
+    long getUserUsage(long userId) {
+        return queryForLong("""
+                SELECT coalesce(sum(b.size), 0) FROM attachment a JOIN attachment_blob b ON b.hash = a.content_hash
+                WHERE a.user_id = :userId""", new MapSqlParameterSource("userId", userId));
+    }
+
+    long getProjectUsage(long projectId) {
+        return queryForLong("""
+                        SELECT coalesce(sum(b.size), 0) FROM attachment a JOIN attachment_blob b ON b.hash = a.content_hash
+                        WHERE a.object_type = :project AND a.object_id = :projectId
+                           OR a.object_type = :sprint AND a.object_id IN (SELECT id FROM sprint WHERE project_id = :projectId)
+                           OR a.object_type = :task AND a.object_id IN (SELECT id FROM task WHERE project_id = :projectId)""",
+                new MapSqlParameterSource("projectId", projectId)
+                        .addValue("project", ObjectType.PROJECT.ordinal())
+                        .addValue("sprint", ObjectType.SPRINT.ordinal())
+                        .addValue("task", ObjectType.TASK.ordinal()));
+    }
+
+    //  serialize quota checks of the user and the project until the end of transaction (on all nodes)
+    void lock(long userId, long projectId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(:userLock, :userId), pg_advisory_xact_lock(:projectLock, :projectId)",
+                new MapSqlParameterSource("userLock", USER_LOCK).addValue("userId", Math.toIntExact(userId))
+                        .addValue("projectLock", PROJECT_LOCK).addValue("projectId", Math.toIntExact(projectId)),
+                rs -> {
+                });
+    }
+
+    private long queryForLong(String sql, MapSqlParameterSource params) {
+        Long value = jdbcTemplate.queryForObject(sql, params, Long.class);
+        return value == null ? 0 : value;
+    }
+}
@@ -2,9 +2,11 @@ package com.codegym.jira.bugtracking.attachment;
 
 import com.codegym.jira.bugtracking.ObjectType;
 import com.codegym.jira.common.BaseRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Transactional(readOnly = true)
@@ -12,4 +14,17 @@ public interface AttachmentRepository extends BaseRepository<Attachment> {
 
     @Query("SELECT a FROM Attachment a WHERE a.objectId =:objectId AND a.objectType =:objectType")
     List<Attachment> getAllForObject(long objectId, ObjectType objectType);
+
+    //  keyset pagination by (dateTime, id), served by IX_ATTACHMENT_OBJECT_DATE_TIME
+    @Query("SELECT a FROM Attachment a WHERE a.objectId =:objectId AND a.objectType =:objectType ORDER BY a.dateTime DESC, a.id DESC")
+    List<Attachment> getFirstPageForObject(long objectId, ObjectType objectType, Pageable pageable);
+
+    @Query("SELECT a FROM Attachment a WHERE a.objectId =:objectId AND a.objectType =:objectType " +
+            "AND (a.dateTime < :dateTime OR (a.dateTime = :dateTime AND a.id < :id)) ORDER BY a.dateTime DESC, a.id DESC")
+    List<Attachment> getPageForObjectBefore(long objectId, ObjectType objectType, LocalDateTime dateTime, long id, Pageable pageable);
+
+    //  rows without dateTime go first in DESC order
+    @Query("SELECT a FROM Attachment a WHERE a.objectId =:objectId AND a.objectType =:objectType " +
+            "AND (a.dateTime IS NOT NULL OR a.id < :id) ORDER BY a.dateTime DESC, a.id DESC")
+    List<Attachment> getPageForObjectBeforeUndated(long objectId, ObjectType objectType, long id, Pageable pageable);
 }
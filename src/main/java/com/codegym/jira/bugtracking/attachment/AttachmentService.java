@@ -0,0 +1,65 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttachmentService {
+    private final AttachmentRepository repository;
+    private final AttachmentStore store;
+    private final AttachmentQuota quota;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional
+    public Attachment upload(MultipartFile file, ObjectType type, long objectId, long userId) {
+        long projectId = quota.getProjectId(type, objectId);
+        quota.check(userId, projectId, file.getSize());
+        AttachmentStore.Blob blob = store.store(file);
+        return save(blob, type, objectId, userId, file.getOriginalFilename());
+    }
+
+    /**
+     * Content is written once: to a temporary file of the store, moved to its place on commit.
+     * Database connection is not held while the content is read; the limit is checked against
+     * Content-Length before reading, while reading and finally, with concurrent uploads serialized, before commit.
+     *
+     * @param contentLength -1 if unknown
+     */
+    public Attachment upload(InputStream in, long contentLength, @Nullable String contentType, String name,
+                             ObjectType type, long objectId, long userId) throws IOException {
+        long projectId = quota.getProjectId(type, objectId);
+        long limit = quota.getLimit(userId, projectId);
+        AttachmentQuota.checkLimit(contentLength, limit);
+        AttachmentStore.Upload upload = store.write(in, AttachmentStore.isCompressible(contentType, name), limit);
+        try {
+            return transactionTemplate.execute(status -> {
+                quota.check(userId, projectId, upload.size());
+                try {
+                    return save(store.store(upload), type, objectId, userId, name);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } finally {
+            AttachmentStore.deleteIfExists(upload.tmp());
+        }
+    }
+
+    private Attachment save(AttachmentStore.Blob blob, ObjectType type, long objectId, long userId, String name) {
+        Attachment attachment = new Attachment(null, blob.path().toString(), objectId, type, userId, name);
+        attachment.setContentHash(blob.hash());
+        return repository.save(attachment);
+    }
+}
@@ -0,0 +1,269 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.common.error.IllegalRequestDataException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed attachment files: the content is stored once in {@code ./attachments/blobs/ab/cd/<sha256>}
+ * (two levels of hash prefix keep directories small) and shared by all attachments with the same content,
+ * reference counted in {@code attachment_blob}.
+ * <p>
+ * The hash is computed while the upload is streamed into a temporary file, so the content is read once.
+ * Text-like content is kept gzipped ({@code <sha256>.gz}): downloads pass it as is to clients accepting gzip.
+ * Store and reclaim of the same content are serialized by a database lock on the hash:
+ * a blob is deleted only when it has no references at reclaim time, and a store always makes sure the file exists.
+ */
+@Slf4j
+@Component
+public class AttachmentStore {
+    static final String BLOBS = "blobs";
+    static final String TMP = "tmp";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Set<String> COMPRESSIBLE_SUBTYPES =
+            Set.of("json", "xml", "csv", "javascript", "x-ndjson", "x-yaml", "yaml", "sql", "x-sh", "rtf");
+
+    /**
+     * @param path stored file of the content, gzipped if {@link #isGzip}
+     */
+    public record Blob(String hash, Path path) {
+    }
+
+    /**
+     * @param tmp  temporary file with the content, gzipped if {@code gzip}
+     * @param size content bytes
+     */
+    public record Upload(Path tmp, String hash, long size, boolean gzip) {
+    }
+
+    private final AttachmentBlobRepository blobRepository;
+    //  reclaim runs after completion of the changing transaction
+    private final TransactionTemplate reclaimTransaction;
+
+    public AttachmentStore(AttachmentBlobRepository blobRepository, PlatformTransactionManager transactionManager) {
+        this.blobRepository = blobRepository;
+        this.reclaimTransaction = new TransactionTemplate(transactionManager);
+        this.reclaimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public static Path getPath(String hash) {
+        return Paths.get(FileUtil.getPath(BLOBS), hash.substring(0, 2), hash.substring(2, 4), hash);
+    }
+
+    public static Path getPath(String hash, boolean gzip) {
+        Path path = getPath(hash);
+        return gzip ? path.resolveSibling(hash + GZIP_SUFFIX) : path;
+    }
+
+    public static boolean isGzip(Path path) {
+        return path.getFileName().toString().endsWith(GZIP_SUFFIX);
+    }
+
+    //  text-like content is stored gzipped, by declared content type or by file name (also if the declared one is malformed)
+    static boolean isCompressible(@Nullable String contentType, @Nullable String fileName) {
+        if (contentType != null) {
+            try {
+                if (isCompressible(MediaType.parseMediaType(contentType))) {
+                    return true;
+                }
+            } catch (InvalidMediaTypeException ex) {
+                log.debug("invalid content type '{}' of {}: {}", contentType, fileName, ex.getMessage());
+            }
+        }
+        return fileName != null && MediaTypeFactory.getMediaType(fileName).map(AttachmentStore::isCompressible).orElse(false);
+    }
+
+    private static boolean isCompressible(MediaType type) {
+        String subtype = type.getSubtype();
+        return type.getType().equals("text") || COMPRESSIBLE_SUBTYPES.contains(subtype)
+                || subtype.endsWith("+json") || subtype.endsWith("+xml");
+    }
+
+    /**
+     * Store uploaded content within the current transaction, the file of rolled back upload is reclaimed
+     */
+    public Blob store(MultipartFile file) {
+        if (file.isEmpty()) {
+            throw new IllegalRequestDataException("Select a file to upload.");
+        }
+        Upload upload = null;
+        try (InputStream in = file.getInputStream()) {
+            upload = write(in, isCompressible(file.getContentType(), file.getOriginalFilename()), Long.MAX_VALUE);
+            return store(upload);
+        } catch (IOException ex) {
+            throw new IllegalRequestDataException("Failed to upload file " + file.getOriginalFilename());
+        } finally {
+            if (upload != null) {
+                deleteIfExists(upload.tmp());
+            }
+        }
+    }
+
+    /**
+     * Write content into a temporary file of the store (it is on the same file system, so it is moved without copying)
+     * and sync it to disk. Compressible content is gzipped while it is streamed, so it is written once in its stored form.
+     * The caller deletes the temporary file after {@link #store(Upload)}.
+     *
+     * @param limit max content bytes, reading stops as soon as it is exceeded
+     */
+    public Upload write(InputStream in, boolean gzip, long limit) throws IOException {
+        Path tmpDir = Paths.get(FileUtil.getPath(TMP));
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload", null);
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE);
+                 OutputStream stored = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+                 OutputStream encoded = gzip ? new GZIPOutputStream(stored, BUFFER_SIZE) : stored) {
+                size = copy(in, new DigestOutputStream(encoded, digest), limit);
+                if (encoded instanceof GZIPOutputStream gzipStream) {
+                    gzipStream.finish();
+                }
+                encoded.flush();
+                channel.force(true);
+            }
+            if (size == 0) {
+                throw new IllegalRequestDataException("Select a file to upload.");
+            }
+            return new Upload(tmp, HexFormat.of().formatHex(digest.digest()), size, gzip);
+        } catch (IOException | RuntimeException ex) {
+            deleteIfExists(tmp);
+            throw ex;
+        }
+    }
+
+    /**
+     * Store written content within the current transaction, the file of rolled back upload is reclaimed
+     */
+    public Blob store(Upload upload) throws IOException {
+        String hash = upload.hash();
+        blobRepository.lock(hash);
+        Path path = findStored(hash);
+        if (path == null) {
+            path = getPath(hash, upload.gzip());
+            Files.createDirectories(path.getParent());
+            Files.move(upload.tmp(), path, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(path.getParent());
+            log.debug("store blob {}, {} bytes", path, upload.size());
+        }
+        blobRepository.acquire(hash, upload.size(), Files.size(path), isGzip(path));
+        reclaimAfterCompletion(hash, false);
+        return new Blob(hash, path);
+    }
+
+    private static long copy(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        for (int read; (read = in.read(buffer)) != -1; ) {
+            size += read;
+            AttachmentQuota.checkLimit(size, limit);
+            out.write(buffer, 0, read);
+        }
+        return size;
+    }
+
+    //  make the moved file entry durable, not supported on some platforms
+    private static void syncDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            log.debug("directory {} sync is not supported: {}", dir, ex.getMessage());
+        }
+    }
+
+    //  the stored file of the content (call under blob lock), the content is stored once: gzipped or as is
+    @Nullable
+    static Path findStored(String hash) {
+        Path gzip = getPath(hash, true);
+        if (Files.exists(gzip)) {
+            return gzip;
+        }
+        Path path = getPath(hash, false);
+        return Files.exists(path) ? path : null;
+    }
+
+    //  release reference within the current transaction, the blob is reclaimed after commit if it is not used
+    public void release(String hash) {
+        blobRepository.release(hash);
+        reclaimAfterCompletion(hash, true);
+    }
+
+    //  reclaim blobs left after a crash between release and reclaim
+    @EventListener(ApplicationReadyEvent.class)
+    public void reclaimUnused() {
+        blobRepository.findUnused().forEach(this::reclaim);
+    }
+
+    void reclaim(String hash) {
+        reclaimTransaction.executeWithoutResult(status -> {
+            blobRepository.lock(hash);
+            if (!blobRepository.isUsed(hash)) {
+                blobRepository.delete(hash);
+                log.debug("reclaim blob {}", hash);
+                deleteIfExists(getPath(hash, false));
+                deleteIfExists(getPath(hash, true));
+            }
+        });
+    }
+
+    private void reclaimAfterCompletion(String hash, boolean onCommit) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if ((status == STATUS_COMMITTED) == onCommit) {
+                    reclaim(hash);
+                }
+            }
+        });
+    }
+
+    static void deleteIfExists(@Nullable Path path) {
+        if (path != null) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ex) {
+                log.warn("File {} deletion failed: {}", path, ex.getMessage());
+            }
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
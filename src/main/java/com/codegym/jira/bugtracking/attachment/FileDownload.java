@@ -0,0 +1,254 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.common.error.NotFoundException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Attachment file download with conditional GET ({@code 304}) and single/multi range ({@code 206}) requests.
+ * <p>
+ * Whole file and single range are sent by Tomcat sendfile when the connector supports it, so their bytes stay off the heap.
+ * Otherwise, and for every part of a multi range, {@link FileChannel#transferTo} writes into a channel over the servlet
+ * output stream, which copies the bytes through a small heap buffer.
+ * Content-addressed files have strong ETag (the content hash) and never change, so clients may cache them without revalidation.
+ * Gzipped content is sent as is ({@code Content-Encoding: gzip}) to clients accepting gzip and decompressed on the fly for others.
+ */
+@UtilityClass
+class FileDownload {
+    static final String IMMUTABLE = "private, max-age=31536000, immutable";
+    static final String REVALIDATE = "private, no-cache";
+
+    //  org.apache.catalina.Globals, servlet API has no constants for them
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String CRLF = "\r\n";
+    private static final String GZIP = "gzip";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_REGIONS = 16;
+
+    /**
+     * @param hash content hash for strong ETag, null - weak ETag by size and modification time
+     * @param gzip the file is gzipped content
+     * @param size content bytes of gzipped file, null if unknown (sent without Content-Length when decompressed)
+     */
+    static void send(HttpServletRequest request, HttpServletResponse response, Path path, @Nullable String hash, boolean gzip,
+                     @Nullable Long size, String contentDisposition) throws IOException {
+        long length;
+        long lastModified;
+        try {
+            length = Files.size(path);
+            lastModified = Files.getLastModifiedTime(path).toMillis();
+        } catch (NoSuchFileException ex) {
+            throw new NotFoundException("File " + path + " not found");
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, hash != null ? IMMUTABLE : REVALIDATE);
+        if (gzip) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!acceptsGzip(request)) {
+                sendDecompressed(request, response, path, '"' + hash + '"', lastModified, size, contentDisposition);
+                return;
+            }
+            //  ranges are of gzipped representation, it has own ETag
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        String etag = hash == null ? "W/\"" + length + '-' + lastModified + '"' :
+                '"' + hash + (gzip ? "-" + GZIP : "") + '"';
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+
+        long[][] regions = getRegions(getRanges(request, etag, hash != null, lastModified), length);
+        if (regions == null) {
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setContentLengthLong(length);
+            transfer(request, response, path, 0, length);
+            return;
+        }
+        if (regions.length == 0) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.length == 1) {
+            long start = regions[0][0];
+            long end = regions[0][1];
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, length));
+            response.setContentLengthLong(end - start + 1);
+            transfer(request, response, path, start, end + 1);
+        } else {
+            sendMultipart(response, path, regions, length);
+        }
+    }
+
+    //  ranges of decompressed content would need decompression from the start, so they are not supported
+    private static void sendDecompressed(HttpServletRequest request, HttpServletResponse response, Path path, String etag,
+                                         long lastModified, @Nullable Long size, String contentDisposition) throws IOException {
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        if (size != null) {
+            response.setContentLengthLong(size);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String coding : headers.nextElement().split(",")) {
+                String[] parts = coding.split(";");
+                if (parts[0].trim().equalsIgnoreCase(GZIP) && (parts.length == 1 || !isZeroQuality(parts[1].trim()))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZeroQuality(String param) {
+        try {
+            return param.startsWith("q=") && Double.parseDouble(param.substring(2)) == 0;
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+    }
+
+    //  ranges are ignored when If-Range does not match (file changed, send it whole) or ETag is weak
+    private static List<HttpRange> getRanges(HttpServletRequest request, String etag, boolean strong, long lastModified) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return List.of();
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            boolean matches = ifRange.startsWith("\"") ? strong && ifRange.equals(etag) :
+                    !ifRange.startsWith("W/") && request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+            if (!matches) {
+                return List.of();
+            }
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException ex) {
+            //  malformed (or too many) ranges, RFC 9110 allows to ignore Range
+            return List.of();
+        }
+    }
+
+    /**
+     * Satisfiable ranges as sorted {@code [first, last]} byte regions, overlapping and adjacent ones are coalesced
+     * (RFC 9110 14.2), so a client cannot make the same bytes be sent many times.
+     *
+     * @return null - send the whole file: no ranges or more than {@link #MAX_REGIONS} regions left;
+     * empty - none of the ranges is satisfiable
+     */
+    @Nullable
+    static long[][] getRegions(List<HttpRange> ranges, long length) {
+        if (ranges.isEmpty()) {
+            return null;
+        }
+        long[][] regions = ranges.stream()
+                .map(range -> new long[]{range.getRangeStart(length), range.getRangeEnd(length)})
+                .filter(region -> region[0] < length && region[0] <= region[1])
+                .sorted(Comparator.comparingLong(region -> region[0]))
+                .toArray(long[][]::new);
+        int count = 0;
+        for (long[] region : regions) {
+            if (count > 0 && region[0] <= regions[count - 1][1] + 1) {
+                regions[count - 1][1] = Math.max(regions[count - 1][1], region[1]);
+            } else {
+                regions[count++] = region;
+            }
+        }
+        return count > MAX_REGIONS ? null : Arrays.copyOf(regions, count);
+    }
+
+    private static void sendMultipart(HttpServletResponse response, Path path, long[][] regions, long length) throws IOException {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        byte[][] partHeaders = new byte[regions.length][];
+        long contentLength = 0;
+        for (int i = 0; i < regions.length; i++) {
+            partHeaders[i] = (CRLF + "--" + boundary + CRLF +
+                    HttpHeaders.CONTENT_TYPE + ": " + MediaType.APPLICATION_OCTET_STREAM_VALUE + CRLF +
+                    HttpHeaders.CONTENT_RANGE + ": " + contentRange(regions[i][0], regions[i][1], length) + CRLF + CRLF)
+                    .getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + regions[i][1] - regions[i][0] + 1;
+        }
+        byte[] end = (CRLF + "--" + boundary + "--" + CRLF).getBytes(StandardCharsets.US_ASCII);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength + end.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < regions.length; i++) {
+                out.write(partHeaders[i]);
+                transfer(channel, regions[i][0], regions[i][1] + 1, target);
+            }
+        }
+        out.write(end);
+    }
+
+    //  [start, end)
+    private static void transfer(HttpServletRequest request, HttpServletResponse response, Path path, long start, long end) throws IOException {
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            //  Tomcat sends the file after the request is processed
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            transfer(channel, start, end, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void transfer(FileChannel channel, long start, long end, WritableByteChannel target) throws IOException {
+        for (long position = start; position < end; ) {
+            long transferred = channel.transferTo(position, end - position, target);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            position += transferred;
+        }
+    }
+
+    private static String contentRange(long start, long end, long length) {
+        return "bytes " + start + '-' + end + '/' + length;
+    }
+}
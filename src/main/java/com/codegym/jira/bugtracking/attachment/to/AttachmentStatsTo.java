@@ -0,0 +1,14 @@
+package com.codegym.jira.bugtracking.attachment.to;
+
+import com.codegym.jira.bugtracking.ObjectType;
+
+/**
+ * Attachment bytes of an object type
+ *
+ * @param files      attachments in content store
+ * @param compressed attachments stored gzipped
+ * @param size       content bytes
+ * @param storedSize bytes of stored files
+ */
+public record AttachmentStatsTo(ObjectType objectType, long files, long compressed, long size, long storedSize) {
+}
@@ -1,7 +1,6 @@
 package com.codegym.jira.bugtracking.project;
 
 import com.codegym.jira.bugtracking.Handlers;
-import com.codegym.jira.bugtracking.ObjectType;
 import com.codegym.jira.common.BaseHandler;
 import com.codegym.jira.bugtracking.project.to.ProjectTo;
 import jakarta.validation.Valid;
@@ -20,6 +19,7 @@ import static com.codegym.jira.common.BaseHandler.createdResponse;
 @RequiredArgsConstructor
 public class ProjectController {
     private final Handlers.ProjectHandler handler;
+    private final ProjectService service;
 
     @GetMapping("/projects")
     public List<ProjectTo> getAll() {
@@ -33,14 +33,14 @@ public class ProjectController {
 
     @PostMapping(path = "/mngr/projects", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Project> create(@Valid @RequestBody ProjectTo projectTo) {
-        Project created = handler.createWithBelong(projectTo, ObjectType.PROJECT, "project_author");
+        Project created = service.create(projectTo);
         return BaseHandler.createdResponse(BaseHandler.REST_URL + "/projects", created);
     }
 
     @PutMapping("/mngr/projects/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void update(@Valid @RequestBody ProjectTo projectTo, @PathVariable Long id) {
-        handler.updateFromTo(projectTo, id);
+        service.update(projectTo, id);
     }
 
     @PatchMapping("/mngr/projects/{id}")
@@ -0,0 +1,30 @@
+package com.codegym.jira.bugtracking.project;
+
+import com.codegym.jira.bugtracking.ClosureRepository;
+import com.codegym.jira.bugtracking.Handlers;
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.bugtracking.project.to.ProjectTo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+//  keeps project closure table in sync with parent_id
+@Service
+@RequiredArgsConstructor
+public class ProjectService {
+    private final Handlers.ProjectHandler handler;
+    private final ClosureRepository closureRepository;
+
+    @Transactional
+    public Project create(ProjectTo projectTo) {
+        Project created = handler.createWithBelong(projectTo, ObjectType.PROJECT, "project_author");
+        closureRepository.insert(ObjectType.PROJECT, created.id(), created.getParentId());
+        return created;
+    }
+
+    @Transactional
+    public void update(ProjectTo projectTo, long id) {
+        closureRepository.move(ObjectType.PROJECT, id, handler.getRepository().getExisted(id).getParentId(), projectTo.getParentId());
+        handler.updateFromTo(projectTo, id);
+    }
+}
@@ -27,6 +27,7 @@ public class ProjectUIController {
     private final ProjectMapperFull mapperFull;
 
     private final Handlers.ProjectHandler handler;
+    private final ProjectService service;
     private final Handlers.AttachmentHandler attachmentHandler;
 
     @GetMapping("/projects/{id}")
@@ -68,10 +69,10 @@ public class ProjectUIController {
         }
         final Long id;
         if (projectTo.isNew()) {
-            Project project = handler.createWithBelong(projectTo, ObjectType.PROJECT, "project_author");
+            Project project = service.create(projectTo);
             id = project.getId();
         } else {
-            handler.updateFromTo(projectTo, projectTo.id());
+            service.update(projectTo, projectTo.id());
             id = projectTo.getId();
         }
         return "redirect:/ui/projects/" + id;
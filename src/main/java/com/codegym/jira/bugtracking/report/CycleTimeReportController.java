@@ -0,0 +1,42 @@
+package com.codegym.jira.bugtracking.report;
+
+import com.codegym.jira.bugtracking.task.TaskTimingRepository;
+import com.codegym.jira.bugtracking.task.to.TaskTimingTo;
+import com.codegym.jira.common.error.NotFoundException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(value = CycleTimeReportController.REST_URL, produces = MediaType.APPLICATION_JSON_VALUE)
+@AllArgsConstructor
+@Slf4j
+public class CycleTimeReportController {
+    static final String REST_URL = "/api/reports/cycle-time";
+
+    private final TaskTimingRepository taskTimingRepository;
+    private final CycleTimeReportRepository reportRepository;
+
+    @GetMapping("/by-task")
+    public TaskTimingTo getByTask(@RequestParam long taskId) {
+        log.info("get cycle time for task with id={}", taskId);
+        return taskTimingRepository.get(taskId)
+                .orElseThrow(() -> new NotFoundException("Not found timing for task with id=" + taskId));
+    }
+
+    @GetMapping("/by-sprint")
+    public CycleTimeSummary getBySprint(@RequestParam long sprintId) {
+        log.info("get cycle time summary for sprint with id={}", sprintId);
+        return reportRepository.getBySprint(sprintId);
+    }
+
+    @GetMapping("/by-project")
+    public CycleTimeSummary getByProject(@RequestParam long projectId) {
+        log.info("get cycle time summary for project with id={}", projectId);
+        return reportRepository.getByProject(projectId);
+    }
+}
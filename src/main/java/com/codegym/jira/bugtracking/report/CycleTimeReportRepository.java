@@ -0,0 +1,50 @@
+package com.codegym.jira.bugtracking.report;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+//  aggregates over TASK_TIMING, durations are calculated by the database without loading activities
+@Repository
+@RequiredArgsConstructor
+public class CycleTimeReportRepository {
+    private static final String SUMMARY = """
+            SELECT count(d.minutes) AS dev_count,
+                   percentile_cont(0.5) WITHIN GROUP (ORDER BY d.minutes) AS dev_p50,
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY d.minutes) AS dev_p90,
+                   percentile_cont(0.99) WITHIN GROUP (ORDER BY d.minutes) AS dev_p99,
+                   count(r.minutes) AS review_count,
+                   percentile_cont(0.5) WITHIN GROUP (ORDER BY r.minutes) AS review_p50,
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY r.minutes) AS review_p90,
+                   percentile_cont(0.99) WITHIN GROUP (ORDER BY r.minutes) AS review_p99
+            FROM task t
+                JOIN task_timing tt ON tt.task_id = t.id
+                CROSS JOIN LATERAL (SELECT extract(EPOCH FROM tt.developed - tt.started) / 60 AS minutes) d
+                CROSS JOIN LATERAL (SELECT extract(EPOCH FROM tt.done - tt.review_started) / 60 AS minutes) r
+            WHERE t.%s = :id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public CycleTimeSummary getBySprint(long sprintId) {
+        return getSummary("sprint_id", sprintId);
+    }
+
+    public CycleTimeSummary getByProject(long projectId) {
+        return getSummary("project_id", projectId);
+    }
+
+    private CycleTimeSummary getSummary(String column, long id) {
+        return jdbcTemplate.queryForObject(String.format(SUMMARY, column), new MapSqlParameterSource("id", id),
+                (rs, rowNum) -> new CycleTimeSummary(percentiles(rs, "dev"), percentiles(rs, "review")));
+    }
+
+    private static CycleTimeSummary.Percentiles percentiles(ResultSet rs, String prefix) throws SQLException {
+        return new CycleTimeSummary.Percentiles(rs.getLong(prefix + "_count"),
+                rs.getObject(prefix + "_p50", Double.class), rs.getObject(prefix + "_p90", Double.class), rs.getObject(prefix + "_p99", Double.class));
+    }
+}
@@ -0,0 +1,13 @@
+package com.codegym.jira.bugtracking.report;
+
+/**
+ * Development ("in_progress" → "ready_for_review") and review ("ready_for_review" → "done") time percentiles in minutes
+ */
+public record CycleTimeSummary(Percentiles development, Percentiles review) {
+
+    /**
+     * @param count number of tasks with completed transition, percentiles are null if zero
+     */
+    public record Percentiles(long count, Double p50, Double p90, Double p99) {
+    }
+}
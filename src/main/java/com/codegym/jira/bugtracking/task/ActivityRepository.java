@@ -1,9 +1,11 @@
 package com.codegym.jira.bugtracking.task;
 
 import com.codegym.jira.common.BaseRepository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Transactional(readOnly = true)
@@ -11,6 +13,27 @@ public interface ActivityRepository extends BaseRepository<Activity> {
     @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId ORDER BY a.updated DESC")
     List<Activity> findAllByTaskIdOrderByUpdatedDesc(long taskId);
 
-    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId AND a.comment IS NOT NULL ORDER BY a.updated DESC")
-    List<Activity> findAllComments(long taskId);
+    //  keyset pagination by (updated, id), served by IX_ACTIVITY_TASK_UPDATED
+    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId ORDER BY a.updated DESC, a.id DESC")
+    List<Activity> findFirstPage(long taskId, Pageable pageable);
+
+    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId " +
+            "AND (a.updated < :updated OR (a.updated = :updated AND a.id < :id)) ORDER BY a.updated DESC, a.id DESC")
+    List<Activity> findPageBefore(long taskId, LocalDateTime updated, long id, Pageable pageable);
+
+    //  rows without updated go first in DESC order
+    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId " +
+            "AND (a.updated IS NOT NULL OR a.id < :id) ORDER BY a.updated DESC, a.id DESC")
+    List<Activity> findPageBeforeUndated(long taskId, long id, Pageable pageable);
+
+    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId AND a.comment IS NOT NULL ORDER BY a.updated DESC, a.id DESC")
+    List<Activity> findFirstCommentsPage(long taskId, Pageable pageable);
+
+    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId AND a.comment IS NOT NULL " +
+            "AND (a.updated < :updated OR (a.updated = :updated AND a.id < :id)) ORDER BY a.updated DESC, a.id DESC")
+    List<Activity> findCommentsPageBefore(long taskId, LocalDateTime updated, long id, Pageable pageable);
+
+    @Query("SELECT a FROM Activity a JOIN FETCH a.author WHERE a.taskId =:taskId AND a.comment IS NOT NULL " +
+            "AND (a.updated IS NOT NULL OR a.id < :id) ORDER BY a.updated DESC, a.id DESC")
+    List<Activity> findCommentsPageBeforeUndated(long taskId, long id, Pageable pageable);
 }
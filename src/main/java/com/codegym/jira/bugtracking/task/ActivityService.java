@@ -4,15 +4,17 @@ import com.codegym.jira.bugtracking.Handlers;
 import com.codegym.jira.common.error.DataConflictException;
 import com.codegym.jira.login.AuthUser;
 import com.codegym.jira.bugtracking.task.to.ActivityTo;
+import com.codegym.jira.bugtracking.task.to.TaskTimingTo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
+import static com.codegym.jira.bugtracking.task.TaskNotificationEvent.Kind.COMMENTED;
+import static com.codegym.jira.bugtracking.task.TaskNotificationEvent.Kind.STATUS_CHANGED;
+import static com.codegym.jira.bugtracking.task.TaskUtil.applyActivity;
 import static com.codegym.jira.bugtracking.task.TaskUtil.getLatestValue;
 
 @Service
@@ -20,8 +22,12 @@ import static com.codegym.jira.bugtracking.task.TaskUtil.getLatestValue;
 public class ActivityService {
     private final TaskRepository taskRepository;
 
+    private final TaskTimingRepository timingRepository;
+
     private final Handlers.ActivityHandler handler;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     private static void checkBelong(HasAuthorId activity) {
         if (activity.getAuthorId() != AuthUser.authId()) {
             throw new DataConflictException("Activity " + activity.getId() + " doesn't belong to " + AuthUser.get());
@@ -31,23 +37,36 @@ public class ActivityService {
     @Transactional
     public Activity create(ActivityTo activityTo) {
         checkBelong(activityTo);
-        if (activityTo.getStatusCode() != null || activityTo.getTypeCode() != null) {
-            Task task = taskRepository.getExisted(activityTo.getTaskId());
-            if (activityTo.getStatusCode() != null) {
-                task.checkAndSetStatusCode(activityTo.getStatusCode());
-            }
-            if (activityTo.getTypeCode() != null) {
-                task.setTypeCode(activityTo.getTypeCode());
-            }
+        Task task = taskRepository.getExisted(activityTo.getTaskId());
+        if (activityTo.getStatusCode() != null) {
+            task.checkAndSetStatusCode(activityTo.getStatusCode());
+        }
+        if (activityTo.getTypeCode() != null) {
+            task.setTypeCode(activityTo.getTypeCode());
         }
-        return handler.createFromTo(activityTo);
+        Activity created = handler.createFromTo(activityTo);
+        applyActivity(task, created);
+        if (activityTo.getStatusCode() != null) {
+            timingRepository.recordStatus(task.id(), activityTo.getStatusCode(), task.getUpdated());
+            eventPublisher.publishEvent(new TaskNotificationEvent(List.of(task.id()), STATUS_CHANGED, created.getAuthorId(), activityTo.getStatusCode()));
+        }
+        if (activityTo.getComment() != null) {
+            eventPublisher.publishEvent(new TaskNotificationEvent(List.of(task.id()), COMMENTED, created.getAuthorId(), activityTo.getComment()));
+        }
+        return created;
     }
 
     @Transactional
     public void update(ActivityTo activityTo, long id) {
-        checkBelong(handler.getRepository().getExisted(activityTo.getId()));
+        Activity activity = handler.getRepository().getExisted(activityTo.getId());
+        checkBelong(activity);
+        boolean statusChanged = activity.getStatusCode() != null || activityTo.getStatusCode() != null;
         handler.updateFromTo(activityTo, id);
         updateTaskIfRequired(activityTo.getTaskId(), activityTo.getStatusCode(), activityTo.getTypeCode());
+        taskRepository.refreshFromActivities(activityTo.getTaskId());
+        if (statusChanged) {
+            timingRepository.refresh(activityTo.getTaskId());
+        }
     }
 
     @Transactional
@@ -56,6 +75,10 @@ public class ActivityService {
         checkBelong(activity);
         handler.delete(activity.id());
         updateTaskIfRequired(activity.getTaskId(), activity.getStatusCode(), activity.getTypeCode());
+        taskRepository.refreshFromActivities(activity.getTaskId());
+        if (activity.getStatusCode() != null) {
+            timingRepository.refresh(activity.getTaskId());
+        }
     }
 
     private void updateTaskIfRequired(long taskId, String activityStatus, String activityType) {
@@ -81,69 +104,25 @@ public class ActivityService {
     
     /**
      * Calcula el tiempo que una tarea estuvo en estado "in_progress" hasta "ready_for_review".
-     * 
+     * Los tiempos de transición se guardan al escribir las actividades (ver TaskTimingRepository).
+     *
      * @param taskId ID de la tarea
      * @return Duración en minutos, o null si no se puede calcular
      */
     @Transactional(readOnly = true)
     public Long calculateDevelopmentTime(long taskId) {
-        List<Activity> activities = handler.getRepository().findAllByTaskIdOrderByUpdatedDesc(taskId);
-        
-        // Ordenamos las actividades de más antiguas a más recientes para procesarlas cronológicamente
-        activities.sort((a1, a2) -> a1.getUpdated().compareTo(a2.getUpdated()));
-        
-        LocalDateTime inProgressTime = null;
-        LocalDateTime readyForReviewTime = null;
-        
-        for (Activity activity : activities) {
-            if (activity.getStatusCode() != null) {
-                if ("in_progress".equals(activity.getStatusCode()) && inProgressTime == null) {
-                    inProgressTime = activity.getUpdated();
-                } else if ("ready_for_review".equals(activity.getStatusCode()) && inProgressTime != null) {
-                    readyForReviewTime = activity.getUpdated();
-                    break; // Encontramos la primera transición de in_progress a ready_for_review
-                }
-            }
-        }
-        
-        if (inProgressTime != null && readyForReviewTime != null) {
-            return Duration.between(inProgressTime, readyForReviewTime).toMinutes();
-        }
-        
-        return null; // No se encontró una transición completa
+        return timingRepository.get(taskId).map(TaskTimingTo::developmentMinutes).orElse(null);
     }
-    
+
     /**
      * Calcula el tiempo que una tarea estuvo en estado "ready_for_review" hasta "done".
-     * 
+     * Los tiempos de transición se guardan al escribir las actividades (ver TaskTimingRepository).
+     *
      * @param taskId ID de la tarea
      * @return Duración en minutos, o null si no se puede calcular
      */
     @Transactional(readOnly = true)
     public Long calculateReviewTime(long taskId) {
-        List<Activity> activities = handler.getRepository().findAllByTaskIdOrderByUpdatedDesc(taskId);
-        
-        // Ordenamos las actividades de más antiguas a más recientes para procesarlas cronológicamente
-        activities.sort((a1, a2) -> a1.getUpdated().compareTo(a2.getUpdated()));
-        
-        LocalDateTime readyForReviewTime = null;
-        LocalDateTime doneTime = null;
-        
-        for (Activity activity : activities) {
-            if (activity.getStatusCode() != null) {
-                if ("ready_for_review".equals(activity.getStatusCode()) && readyForReviewTime == null) {
-                    readyForReviewTime = activity.getUpdated();
-                } else if ("done".equals(activity.getStatusCode()) && readyForReviewTime != null) {
-                    doneTime = activity.getUpdated();
-                    break; // Encontramos la primera transición de ready_for_review a done
-                }
-            }
-        }
-        
-        if (readyForReviewTime != null && doneTime != null) {
-            return Duration.between(readyForReviewTime, doneTime).toMinutes();
-        }
-        
-        return null; // No se encontró una transición completa
+        return timingRepository.get(taskId).map(TaskTimingTo::reviewMinutes).orElse(null);
     }
 }
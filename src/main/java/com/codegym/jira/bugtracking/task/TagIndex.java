@@ -0,0 +1,179 @@
+package com.codegym.jira.bugtracking.task;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory tag → task ids and project → task ids bitmaps for multi-tag queries and tag counts.
+ * Task ids are dense (sequence), so {@link BitSet} indexed by id is compact and AND/ANDNOT are word-wise.
+ * <p>
+ * Readers work with an immutable {@link Snapshot}: published bitmaps are never modified, writers build a new snapshot
+ * (copying only the changed bitmaps) and swap it in. Writers are serialized and read the database under the same lock,
+ * so a full {@link #rebuild()} and the updates after commit of every tag or project change ({@link TaskTagsChangedEvent})
+ * are applied in the order they read the committed state. Tasks which are not found anymore are removed from the index.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagIndex {
+    private static final String SELECT_TASK_TAGS = "SELECT t.id, t.project_id, tt.tag FROM task t LEFT JOIN task_tag tt ON tt.task_id = t.id";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    //  serializes writers over their query; a monitor held there would pin the request virtual thread
+    private final Lock writeLock = new ReentrantLock();
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            Map<String, BitSet> byTag = new HashMap<>();
+            Map<Long, BitSet> byProject = new HashMap<>();
+            jdbcTemplate.query(SELECT_TASK_TAGS, rs -> {
+                int taskId = toIndex(rs.getLong(1));
+                byProject.computeIfAbsent(rs.getLong(2), id -> new BitSet()).set(taskId);
+                String tag = rs.getString(3);
+                if (tag != null) {
+                    byTag.computeIfAbsent(tag, t -> new BitSet()).set(taskId);
+                }
+            });
+            snapshot = new Snapshot(byTag, byProject);
+            log.info("tag index rebuilt: {} tags, {} projects", byTag.size(), byProject.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(TaskTagsChangedEvent event) {
+        Collection<Long> taskIds = event.taskIds();
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            List<TaskTag> rows = jdbcTemplate.query(SELECT_TASK_TAGS + " WHERE t.id IN (:taskIds)", new MapSqlParameterSource("taskIds", taskIds),
+                    (rs, rowNum) -> new TaskTag(toIndex(rs.getLong(1)), rs.getLong(2), rs.getString(3)));
+            Snapshot current = snapshot;
+            Map<String, BitSet> byTag = new HashMap<>(current.tasksByTag());
+            Map<Long, BitSet> byProject = new HashMap<>(current.tasksByProject());
+            Set<BitSet> copies = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Long taskId : taskIds) {
+                int idx = toIndex(taskId);
+                clear(byTag, idx, copies);
+                clear(byProject, idx, copies);
+            }
+            for (TaskTag row : rows) {
+                modifiable(byProject, row.projectId(), copies).set(row.taskId());
+                if (row.tag() != null) {
+                    modifiable(byTag, row.tag(), copies).set(row.taskId());
+                }
+            }
+            byTag.values().removeIf(BitSet::isEmpty);
+            byProject.values().removeIf(BitSet::isEmpty);
+            snapshot = new Snapshot(byTag, byProject);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Tasks of the project which have all {@code allTags} and none of {@code noneTags}
+     *
+     * @return task ids in ascending order
+     */
+    public long[] find(long projectId, Collection<String> allTags, Collection<String> noneTags) {
+        Snapshot current = snapshot;
+        BitSet result = copy(current.tasksByProject().get(projectId));
+        for (String tag : allTags) {
+            BitSet tasks = current.tasksByTag().get(tag);
+            if (tasks == null) {
+                return new long[0];
+            }
+            result.and(tasks);
+        }
+        for (String tag : noneTags) {
+            BitSet tasks = current.tasksByTag().get(tag);
+            if (tasks != null) {
+                result.andNot(tasks);
+            }
+        }
+        return result.stream().asLongStream().toArray();
+    }
+
+    /**
+     * @return tag → number of project tasks with this tag, ordered by tag
+     */
+    public Map<String, Integer> countByTag(long projectId) {
+        Map<String, Integer> counts = new TreeMap<>();
+        Snapshot current = snapshot;
+        BitSet projectTasks = current.tasksByProject().get(projectId);
+        if (projectTasks == null) {
+            return counts;
+        }
+        current.tasksByTag().forEach((tag, tasks) -> {
+            if (tasks.intersects(projectTasks)) {
+                BitSet intersection = copy(tasks);
+                intersection.and(projectTasks);
+                counts.put(tag, intersection.cardinality());
+            }
+        });
+        return counts;
+    }
+
+    private static <K> void clear(Map<K, BitSet> map, int idx, Set<BitSet> copies) {
+        map.replaceAll((key, tasks) -> {
+            if (!tasks.get(idx)) {
+                return tasks;
+            }
+            BitSet modifiable = copies.contains(tasks) ? tasks : copy(tasks);
+            copies.add(modifiable);
+            modifiable.clear(idx);
+            return modifiable;
+        });
+    }
+
+    //  bitmap of the new snapshot which can be changed: published bitmaps are copied once
+    private static <K> BitSet modifiable(Map<K, BitSet> map, K key, Set<BitSet> copies) {
+        BitSet tasks = map.get(key);
+        if (tasks == null || !copies.contains(tasks)) {
+            tasks = copy(tasks);
+            copies.add(tasks);
+            map.put(key, tasks);
+        }
+        return tasks;
+    }
+
+    private static BitSet copy(BitSet bitSet) {
+        return bitSet == null ? new BitSet() : (BitSet) bitSet.clone();
+    }
+
+    private static int toIndex(long taskId) {
+        return Math.toIntExact(taskId);
+    }
+
+    private record TaskTag(int taskId, long projectId, String tag) {
+    }
+
+    private record Snapshot(Map<String, BitSet> tasksByTag, Map<Long, BitSet> tasksByProject) {
+    }
+}
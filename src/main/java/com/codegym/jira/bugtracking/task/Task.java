@@ -14,6 +14,7 @@ import lombok.Setter;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Set;
 
@@ -61,6 +62,24 @@ public class Task extends TitleEntity implements HasCode {
     @Column(name = "sprint_id")
     private Long sprintId;
 
+    // description, priorityCode, estimate, updated: latest values from activities, kept current on every activity write
+    @Nullable
+    @Column(name = "description")
+    private String description;
+
+    // link to Reference.code with RefType.PRIORITY
+    @Nullable
+    @Column(name = "priority_code")
+    private String priorityCode;
+
+    @Nullable
+    @Column(name = "estimate")
+    private Integer estimate;
+
+    @Nullable
+    @Column(name = "updated")
+    private LocalDateTime updated;
+
     @CollectionTable(name = "task_tag",
             joinColumns = @JoinColumn(name = "task_id"),
             uniqueConstraints = @UniqueConstraint(columnNames = {"task_id", "tag"}, name = "uk_task_tag"))
@@ -0,0 +1,58 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.task.to.TaskBulkResultTo;
+import com.codegym.jira.bugtracking.task.to.TaskSelectionTo;
+import com.codegym.jira.login.AuthUser;
+import jakarta.annotation.Nullable;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Bulk task operations: request body selects tasks by ids or by filter (project, sprint, status),
+ * response contains result for every selected task.
+ */
+@Slf4j
+@RestController
+@RequestMapping(value = TaskBulkController.REST_URL, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+public class TaskBulkController {
+    public static final String REST_URL = TaskController.REST_URL + "/bulk";
+
+    private final TaskBulkService bulkService;
+
+    @PatchMapping("/change-status")
+    public List<TaskBulkResultTo> changeStatus(@Valid @RequestBody TaskSelectionTo selection, @NotBlank @RequestParam String statusCode) {
+        log.info("change status to {} for tasks {}", statusCode, selection);
+        return bulkService.changeStatus(selection, statusCode);
+    }
+
+    @PatchMapping("/change-sprint")
+    public List<TaskBulkResultTo> changeSprint(@Valid @RequestBody TaskSelectionTo selection, @Nullable @RequestParam(required = false) Long sprintId) {
+        log.info("change sprint to {} for tasks {}", sprintId, selection);
+        return bulkService.changeSprint(selection, sprintId);
+    }
+
+    @PatchMapping("/assign")
+    public List<TaskBulkResultTo> assign(@Valid @RequestBody TaskSelectionTo selection, @NotBlank @RequestParam String userType) {
+        log.info("assign user {} as {} to tasks {}", AuthUser.authId(), userType, selection);
+        return bulkService.assign(selection, userType, AuthUser.authId());
+    }
+
+    @PostMapping("/tags")
+    public List<TaskBulkResultTo> addTag(@Valid @RequestBody TaskSelectionTo selection, @NotBlank @RequestParam String tag) {
+        log.info("add tag {} to tasks {}", tag, selection);
+        return bulkService.addTag(selection, tag);
+    }
+
+    @DeleteMapping("/tags")
+    public List<TaskBulkResultTo> removeTag(@Valid @RequestBody TaskSelectionTo selection, @NotBlank @RequestParam String tag) {
+        log.info("remove tag {} from tasks {}", tag, selection);
+        return bulkService.removeTag(selection, tag);
+    }
+}
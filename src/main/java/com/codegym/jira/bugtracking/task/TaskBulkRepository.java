@@ -0,0 +1,48 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+//  IDENTITY ids switch off Hibernate insert batching, so bulk rows are written with JDBC batches
+@Repository
+@RequiredArgsConstructor
+public class TaskBulkRepository {
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    void insertStatusActivities(Collection<Long> taskIds, String statusCode, long authorId, LocalDateTime updated) {
+        jdbcTemplate.batchUpdate("INSERT INTO activity (author_id, task_id, updated, status_code) VALUES (?, ?, ?, ?)",
+                taskIds, BATCH_SIZE, (ps, taskId) -> {
+                    ps.setLong(1, authorId);
+                    ps.setLong(2, taskId);
+                    ps.setObject(3, updated);
+                    ps.setString(4, statusCode);
+                });
+    }
+
+    void insertUserBelongs(Collection<Long> objectIds, ObjectType type, long userId, String userTypeCode, LocalDateTime startpoint) {
+        jdbcTemplate.batchUpdate("INSERT INTO user_belong (object_id, object_type, user_id, user_type_code, startpoint) VALUES (?, ?, ?, ?, ?) " +
+                        "ON CONFLICT (object_id, object_type, user_id, user_type_code) WHERE endpoint IS NULL DO NOTHING",
+                objectIds, BATCH_SIZE, (ps, objectId) -> {
+                    ps.setLong(1, objectId);
+                    ps.setInt(2, type.ordinal());
+                    ps.setLong(3, userId);
+                    ps.setString(4, userTypeCode);
+                    ps.setObject(5, startpoint);
+                });
+    }
+
+    void insertTags(long taskId, Collection<String> tags) {
+        jdbcTemplate.batchUpdate("INSERT INTO task_tag (task_id, tag) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                tags, BATCH_SIZE, (ps, tag) -> {
+                    ps.setLong(1, taskId);
+                    ps.setString(2, tag);
+                });
+    }
+}
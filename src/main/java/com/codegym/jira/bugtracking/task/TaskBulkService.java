@@ -0,0 +1,178 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.bugtracking.sprint.Sprint;
+import com.codegym.jira.bugtracking.sprint.SprintRepository;
+import com.codegym.jira.bugtracking.task.to.TaskBulkResultTo;
+import com.codegym.jira.bugtracking.task.to.TaskSelectionTo;
+import com.codegym.jira.common.error.DataConflictException;
+import com.codegym.jira.common.error.IllegalRequestDataException;
+import com.codegym.jira.login.AuthUser;
+import com.codegym.jira.ref.RefType;
+import com.codegym.jira.ref.ReferenceService;
+import com.codegym.jira.ref.TaskWorkflow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.codegym.jira.bugtracking.task.TaskNotificationEvent.Kind.ASSIGNED;
+import static com.codegym.jira.bugtracking.task.TaskNotificationEvent.Kind.STATUS_CHANGED;
+
+/**
+ * Set-based operations over many tasks: tasks are loaded with one query, checked in memory
+ * and changed with a constant number of statements (no per-task load/save round trips).
+ * Result contains a row for every selected task: tasks which failed the check are reported and skipped.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskBulkService {
+    static final int MAX_TASKS = 5000;
+    static final String NOT_FOUND = "Not found";
+
+    private final TaskRepository repository;
+    private final TaskBulkRepository bulkRepository;
+    private final SprintRepository sprintRepository;
+    private final TaskTimingRepository timingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public List<TaskBulkResultTo> changeStatus(TaskSelectionTo selection, String statusCode) {
+        Assert.notNull(statusCode, "statusCode must not be null");
+        ReferenceService.getRefTo(RefType.TASK_STATUS, statusCode);
+        List<TaskBulkResultTo> results = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (Task task : select(selection, results)) {
+            if (!statusCode.equals(task.getStatusCode())) {
+                try {
+                    TaskUtil.checkStatusChangePossible(task.getStatusCode(), statusCode);
+                } catch (DataConflictException e) {
+                    results.add(new TaskBulkResultTo(task.id(), false, e.getMessage()));
+                    continue;
+                }
+                changed.add(task.id());
+            }
+            results.add(new TaskBulkResultTo(task.id(), true, null));
+        }
+        if (!changed.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            repository.setStatus(changed, statusCode, now);
+            bulkRepository.insertStatusActivities(changed, statusCode, AuthUser.authId(), now);
+            timingRepository.recordStatus(changed, statusCode, now);
+            String userType = TaskWorkflow.get().assigneeUserType(statusCode);
+            if (userType != null) {
+                bulkRepository.insertUserBelongs(changed, ObjectType.TASK, AuthUser.authId(), userType, now);
+            }
+            eventPublisher.publishEvent(new TaskNotificationEvent(changed, STATUS_CHANGED, AuthUser.authId(), statusCode));
+        }
+        return results;
+    }
+
+    @Transactional
+    public List<TaskBulkResultTo> changeSprint(TaskSelectionTo selection, Long sprintId) {
+        Sprint sprint = sprintId == null ? null : sprintRepository.getExisted(sprintId);
+        List<TaskBulkResultTo> results = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (Task task : select(selection, results)) {
+            if (task.getParentId() != null) {
+                results.add(new TaskBulkResultTo(task.id(), false, "Can't change subtask sprint"));
+            } else if (sprint != null && sprint.getProjectId() != task.getProjectId()) {
+                results.add(new TaskBulkResultTo(task.id(), false, "Target sprint must belong to the same project"));
+            } else {
+                changed.add(task.id());
+                results.add(new TaskBulkResultTo(task.id(), true, null));
+            }
+        }
+        if (!changed.isEmpty()) {
+            repository.setTasksAndSubTasksSprint(changed, sprintId);
+        }
+        return results;
+    }
+
+    @Transactional
+    public List<TaskBulkResultTo> assign(TaskSelectionTo selection, String userType, long userId) {
+        Assert.notNull(userType, "userType must not be null");
+        TaskWorkflow workflow = TaskWorkflow.get();
+        List<TaskBulkResultTo> results = new ArrayList<>();
+        List<Long> changed = new ArrayList<>();
+        for (Task task : select(selection, results)) {
+            if (userType.equals(workflow.assigneeUserType(task.getStatusCode()))) {
+                changed.add(task.id());
+                results.add(new TaskBulkResultTo(task.id(), true, null));
+            } else {
+                results.add(new TaskBulkResultTo(task.id(), false, String.format(TaskService.CANNOT_ASSIGN, userType, task.getStatusCode())));
+            }
+        }
+        if (!changed.isEmpty()) {
+            bulkRepository.insertUserBelongs(changed, ObjectType.TASK, userId, userType, LocalDateTime.now());
+            eventPublisher.publishEvent(new TaskNotificationEvent(changed, ASSIGNED, AuthUser.authId(), userType, userId));
+        }
+        return results;
+    }
+
+    @Transactional
+    public List<TaskBulkResultTo> addTag(TaskSelectionTo selection, String tag) {
+        return changeTag(selection, tag, repository::addTag);
+    }
+
+    @Transactional
+    public List<TaskBulkResultTo> removeTag(TaskSelectionTo selection, String tag) {
+        return changeTag(selection, tag, repository::removeTag);
+    }
+
+    private List<TaskBulkResultTo> changeTag(TaskSelectionTo selection, String tag, TagOperation operation) {
+        TaskUtil.checkTag(tag);
+        List<TaskBulkResultTo> results = new ArrayList<>();
+        List<Long> changed = select(selection, results).stream().map(Task::id).toList();
+        if (!changed.isEmpty()) {
+            operation.apply(changed, tag);
+            eventPublisher.publishEvent(new TaskTagsChangedEvent(changed));
+        }
+        changed.forEach(id -> results.add(new TaskBulkResultTo(id, true, null)));
+        return results;
+    }
+
+    //  load selected tasks by one query, ids which are not found are added to results as failed
+    private List<Task> select(TaskSelectionTo selection, List<TaskBulkResultTo> results) {
+        if (selection.isFilter()) {
+            if (selection.getProjectId() == null && selection.getSprintId() == null && selection.getStatusCode() == null) {
+                throw new IllegalRequestDataException("Task ids or filter must be specified");
+            }
+            List<Task> tasks = repository.findAllByFilter(selection.getProjectId(), selection.getSprintId(), selection.getStatusCode(),
+                    PageRequest.of(0, MAX_TASKS + 1));
+            if (tasks.size() > MAX_TASKS) {
+                throw new IllegalRequestDataException("Too many tasks selected, max " + MAX_TASKS);
+            }
+            return tasks;
+        }
+        if (selection.getIds().isEmpty() || selection.getIds().size() > MAX_TASKS) {
+            throw new IllegalRequestDataException("Task ids count must be between 1 and " + MAX_TASKS);
+        }
+        Map<Long, Task> found = repository.findAllById(selection.getIds()).stream()
+                .collect(Collectors.toMap(Task::id, Function.identity()));
+        List<Task> tasks = new ArrayList<>(found.size());
+        selection.getIds().stream().sorted().forEach(id -> {
+            Task task = found.get(id);
+            if (task == null) {
+                results.add(new TaskBulkResultTo(id, false, NOT_FOUND));
+            } else {
+                tasks.add(task);
+            }
+        });
+        return tasks;
+    }
+
+    @FunctionalInterface
+    private interface TagOperation {
+        int apply(List<Long> taskIds, String tag);
+    }
+}
@@ -1,28 +1,36 @@
 package com.codegym.jira.bugtracking.task;
 
+import com.codegym.jira.bugtracking.ClosureRepository;
 import com.codegym.jira.bugtracking.Handlers;
+import com.codegym.jira.bugtracking.ObjectType;
 import com.codegym.jira.bugtracking.UserBelong;
 import com.codegym.jira.bugtracking.UserBelongRepository;
-import com.codegym.jira.bugtracking.tree.ITreeNode;
-import com.codegym.jira.common.util.Util;
 import com.codegym.jira.login.AuthUser;
 import com.codegym.jira.bugtracking.task.to.ActivityTo;
 import com.codegym.jira.bugtracking.task.to.TaskTo;
+import com.codegym.jira.bugtracking.task.to.TaskSearchResultTo;
 import com.codegym.jira.bugtracking.task.to.TaskToExt;
 import com.codegym.jira.bugtracking.task.to.TaskToFull;
+import com.codegym.jira.bugtracking.task.to.TaskTreeTo;
+import com.codegym.jira.bugtracking.task.to.TimelinePageTo;
 import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import static com.codegym.jira.common.BaseHandler.createdResponse;
@@ -34,12 +42,19 @@ import static com.codegym.jira.common.BaseHandler.createdResponse;
 public class TaskController {
 
     public static final String REST_URL = "/api/tasks";
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final String CSV_VALUE = "text/csv";
 
     private final TaskService taskService;
     private final ActivityService activityService;
+    private final TimelineService timelineService;
+    private final TaskExportService exportService;
+    private final TaskSearchService searchService;
+    private final TagIndex tagIndex;
+    private final TaskTreeRepository treeRepository;
     private final Handlers.TaskHandler handler;
-    private final Handlers.ActivityHandler activityHandler;
     private final UserBelongRepository userBelongRepository;
+    private final ClosureRepository closureRepository;
 
 
     @GetMapping("/{id}")
@@ -48,26 +63,31 @@ public class TaskController {
         return taskService.get(id);
     }
 
-    @GetMapping("/by-sprint")
-    public List<TaskTo> getAllBySprint(@RequestParam long sprintId) {
-        log.info("get all for sprint {}", sprintId);
-        return sortTasksAsTree(handler.getMapper().toToList(handler.getRepository().findAllBySprintId(sprintId)));
+    @GetMapping("/{id}/ancestors")
+    public List<TaskTo> getAncestors(@PathVariable long id) {
+        log.info("get ancestors of task {}", id);
+        handler.getRepository().checkExisted(id);
+        return handler.getMapper().toToList(handler.getRepository().findAncestors(id));
     }
 
-    private List<TaskTo> sortTasksAsTree(List<TaskTo> tasks) {
-        List<TaskTreeNode> roots = Util.makeTree(tasks, TaskTreeNode::new);
-        List<TaskTo> sortedTasks = new ArrayList<>();
-        roots.forEach(root -> {
-            sortedTasks.add(root.taskTo);
-            List<TaskTreeNode> subNodes = root.subNodes();
-            LinkedList<TaskTreeNode> stack = new LinkedList<>(subNodes);
-            while (!stack.isEmpty()) {
-                TaskTreeNode node = stack.poll();
-                sortedTasks.add(node.taskTo);
-                node.subNodes().forEach(stack::addFirst);
-            }
-        });
-        return sortedTasks;
+    @GetMapping("/{id}/descendants")
+    public List<TaskTo> getDescendants(@PathVariable long id) {
+        log.info("get descendants of task {}", id);
+        handler.getRepository().checkExisted(id);
+        return handler.getMapper().toToList(handler.getRepository().findDescendants(id));
+    }
+
+    @GetMapping("/{id}/descendants/count")
+    public int countDescendants(@PathVariable long id) {
+        log.info("count descendants of task {}", id);
+        handler.getRepository().checkExisted(id);
+        return closureRepository.countDescendants(ObjectType.TASK, id);
+    }
+
+    @GetMapping("/by-sprint")
+    public List<TaskTreeTo> getAllBySprint(@RequestParam long sprintId) {
+        log.info("get all for sprint {}", sprintId);
+        return treeRepository.getSprintTree(sprintId);
     }
 
     @GetMapping("/by-project")
@@ -76,6 +96,35 @@ public class TaskController {
         return handler.getMapper().toToList(handler.getRepository().findAllByProjectId(projectId));
     }
 
+    @GetMapping("/search")
+    public List<TaskSearchResultTo> search(@RequestParam String query,
+                                           @Nullable @RequestParam(required = false) Long projectId,
+                                           @Nullable @RequestParam(required = false) Long sprintId,
+                                           @Nullable @RequestParam(required = false) String statusCode,
+                                           @Nullable @RequestParam(required = false) String tag,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "" + TaskSearchService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("search tasks by '{}' in project {}, sprint {}, status {}, tag {}", query, projectId, sprintId, statusCode, tag);
+        return searchService.search(query, projectId, sprintId, statusCode, tag, page, size);
+    }
+
+    /**
+     * Export all project tasks with tags and latest activity values, rows are written as they are read from database
+     *
+     * @param projectId the project ID
+     * @param format    NDJSON (one JSON object per line) or CSV
+     */
+    @GetMapping(value = "/export", produces = {NDJSON_VALUE, CSV_VALUE})
+    public void export(@RequestParam long projectId, @RequestParam(defaultValue = "NDJSON") TaskExportService.Format format,
+                       HttpServletResponse response) throws IOException {
+        log.info("export tasks for project {} as {}", projectId, format);
+        response.setContentType(format == TaskExportService.Format.CSV ? CSV_VALUE : NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("project-" + projectId + "-tasks." + format.name().toLowerCase(Locale.ENGLISH)).build().toString());
+        exportService.export(projectId, format, response.getOutputStream());
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     public ResponseEntity<Task> createWithLocation(@Valid @RequestBody TaskToExt taskTo) {
@@ -128,10 +177,45 @@ public class TaskController {
         taskService.unAssign(id, userType, AuthUser.authId());
     }
 
+    /**
+     * Task history (comments, field changes and attachments), newest first
+     *
+     * @param id     the task ID
+     * @param cursor nextCursor from the previous page, empty for the first page
+     * @param size   page size
+     * @return page of timeline entries
+     */
+    @GetMapping("/{id}/timeline")
+    public TimelinePageTo getTimeline(@PathVariable long id, @Nullable @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "" + TimelineService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("get timeline for task with id={}, cursor={}", id, cursor);
+        return timelineService.getTimeline(id, cursor, size);
+    }
+
+    /**
+     * Task activities (comments and field changes), newest first
+     *
+     * @param cursor {@code <updated>_<id>} of the last activity of the previous page, empty for the first page
+     * @param size   page size
+     */
+    @GetMapping("/{id}/activities")
+    public List<ActivityTo> getActivities(@PathVariable long id, @Nullable @RequestParam(required = false) String cursor,
+                                          @RequestParam(defaultValue = "" + TimelineService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("get activities for task with id={}, cursor={}", id, cursor);
+        return timelineService.getActivities(id, cursor, size);
+    }
+
+    /**
+     * Task comments, newest first
+     *
+     * @param cursor {@code <updated>_<id>} of the last comment of the previous page, empty for the first page
+     * @param size   page size
+     */
     @GetMapping("/{id}/comments")
-    public List<ActivityTo> getComments(@PathVariable long id) {
-        log.info("get comments for task with id={}", id);
-        return activityHandler.getMapper().toToList(activityHandler.getRepository().findAllComments(id));
+    public List<ActivityTo> getComments(@PathVariable long id, @Nullable @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "" + TimelineService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("get comments for task with id={}, cursor={}", id, cursor);
+        return timelineService.getComments(id, cursor, size);
     }
 
     @PostMapping(value = "/activities", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -190,6 +274,33 @@ public class TaskController {
         return taskService.removeTag(id, tag);
     }
     
+    /**
+     * Find project tasks by tags
+     *
+     * @param projectId the project ID
+     * @param all       tags which task must have
+     * @param none      tags which task must not have
+     * @return ids of found tasks in ascending order
+     */
+    @GetMapping("/tags/query")
+    public long[] findByTags(@RequestParam long projectId, @RequestParam(defaultValue = "") Set<String> all,
+                             @RequestParam(defaultValue = "") Set<String> none) {
+        log.info("find tasks in project {} with tags {} and without {}", projectId, all, none);
+        return tagIndex.find(projectId, all, none);
+    }
+
+    /**
+     * Count project tasks by tag
+     *
+     * @param projectId the project ID
+     * @return tag to number of tasks
+     */
+    @GetMapping("/tags/counts")
+    public Map<String, Integer> countByTags(@RequestParam long projectId) {
+        log.info("count tags in project {}", projectId);
+        return tagIndex.countByTag(projectId);
+    }
+
     /**
      * Set all tags for a task (replaces existing tags)
      * 
@@ -202,10 +313,4 @@ public class TaskController {
         log.info("set tags {} for task with id={}", tags, id);
         return taskService.setTags(id, tags);
     }
-
-    private record TaskTreeNode(TaskTo taskTo, List<TaskTreeNode> subNodes) implements ITreeNode<TaskTo, TaskTreeNode> {
-        public TaskTreeNode(TaskTo taskTo) {
-            this(taskTo, new LinkedList<>());
-        }
-    }
 }
@@ -0,0 +1,127 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.task.to.TaskExportTo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes all project tasks row by row: tasks are read by a database cursor ({@link TaskRepository#streamAllForExport})
+ * and tags are loaded for every {@link #CHUNK_SIZE} rows, so memory doesn't depend on project size.
+ * Output is flushed after every chunk: when the client disconnects, the next write fails and the cursor is closed.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskExportService {
+    static final int CHUNK_SIZE = 500;
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private final TaskRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(long projectId, Format format, OutputStream out) throws IOException {
+        try (Stream<TaskExportTo> tasks = repository.streamAllForExport(projectId)) {
+            if (format == Format.CSV) {
+                exportCsv(tasks.iterator(), out);
+            } else {
+                exportNdjson(tasks.iterator(), out);
+            }
+        }
+    }
+
+    private void exportNdjson(Iterator<TaskExportTo> tasks, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(TaskExportTo.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            forEachChunk(tasks, chunk -> {
+                for (TaskExportTo task : chunk) {
+                    writer.writeValue(generator, task);
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            });
+        }
+    }
+
+    private void exportCsv(Iterator<TaskExportTo> tasks, OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writeCsvLine(writer, TaskExportTo.CSV_HEADER);
+            forEachChunk(tasks, chunk -> {
+                for (TaskExportTo task : chunk) {
+                    writeCsvLine(writer, task.toCsvValues());
+                }
+                writer.flush();
+            });
+        }
+    }
+
+    private void forEachChunk(Iterator<TaskExportTo> tasks, ChunkConsumer consumer) throws IOException {
+        List<TaskExportTo> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (tasks.hasNext()) {
+            chunk.add(tasks.next());
+            if (chunk.size() == CHUNK_SIZE || !tasks.hasNext()) {
+                consumer.accept(withTags(chunk));
+                chunk.clear();
+            }
+        }
+    }
+
+    private List<TaskExportTo> withTags(List<TaskExportTo> chunk) {
+        Set<Long> ids = chunk.stream().map(TaskExportTo::id).collect(Collectors.toSet());
+        Map<Long, Set<String>> tags = new HashMap<>();
+        for (Object[] row : repository.findTags(ids)) {
+            tags.computeIfAbsent(((Number) row[0]).longValue(), id -> new HashSet<>()).add((String) row[1]);
+        }
+        return chunk.stream()
+                .map(task -> tags.containsKey(task.id()) ? task.withTags(tags.get(task.id())) : task)
+                .toList();
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface ChunkConsumer {
+        void accept(List<TaskExportTo> chunk) throws IOException;
+    }
+}
@@ -0,0 +1,30 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.common.AppEvent;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Task change to notify task members about, published inside the changing transaction
+ *
+ * @param value      new status code, assigned user type or comment
+ * @param assigneeId assigned user for {@link Kind#ASSIGNED}
+ */
+public record TaskNotificationEvent(Collection<Long> taskIds, Kind kind, long authorId, @Nullable String value,
+                                    @Nullable Long assigneeId) implements AppEvent {
+
+    public TaskNotificationEvent(Collection<Long> taskIds, Kind kind, long authorId, @Nullable String value) {
+        this(taskIds, kind, authorId, value, null);
+    }
+
+    public enum Kind {
+        STATUS_CHANGED, ASSIGNED, COMMENTED;
+
+        //  code of MAIL_NOTIFICATION reference
+        public String getCode() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+}
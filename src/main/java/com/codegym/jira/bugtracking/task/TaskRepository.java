@@ -1,12 +1,21 @@
 package com.codegym.jira.bugtracking.task;
 
+import com.codegym.jira.bugtracking.task.to.TaskExportTo;
 import com.codegym.jira.common.BaseRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Transactional(readOnly = true)
 public interface TaskRepository extends BaseRepository<Task> {
@@ -19,22 +28,83 @@ public interface TaskRepository extends BaseRepository<Task> {
     @Query("SELECT t FROM Task t WHERE t.projectId =:projectId ORDER BY t.startpoint DESC")
     List<Task> findAllByProjectId(long projectId);
 
+    //  database cursor (fetch size), rows are DTOs and don't fill the persistence context
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + TaskExportService.CHUNK_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new com.codegym.jira.bugtracking.task.to.TaskExportTo(t.id, t.typeCode, t.title, t.statusCode, t.priorityCode, " +
+            "t.parentId, t.projectId, t.sprintId, t.description, t.estimate, t.startpoint, t.endpoint, t.updated) " +
+            "FROM Task t WHERE t.projectId =:projectId ORDER BY t.id")
+    Stream<TaskExportTo> streamAllForExport(long projectId);
+
+    @Query(value = "SELECT task_id, tag FROM task_tag WHERE task_id IN (:taskIds)", nativeQuery = true)
+    List<Object[]> findTags(Collection<Long> taskIds);
+
+    @Query("SELECT t FROM Task t WHERE (:projectId IS NULL OR t.projectId =:projectId) AND (:sprintId IS NULL OR t.sprintId =:sprintId) " +
+            "AND (:statusCode IS NULL OR t.statusCode =:statusCode) ORDER BY t.id")
+    List<Task> findAllByFilter(Long projectId, Long sprintId, String statusCode, Pageable pageable);
+
     @Query("SELECT t FROM Task t JOIN FETCH t.project LEFT JOIN FETCH t.sprint LEFT JOIN FETCH t.parent WHERE t.id =:id")
     Optional<Task> findFullById(long id);
 
     @Modifying
     @Query(value = """
-            WITH RECURSIVE task_with_subtasks AS (
-                SELECT id, id AS child
-                FROM task
-                WHERE parent_id is null AND id =:taskId
-                UNION ALL
-                    SELECT task_with_subtasks.id, t.id
-                    FROM task_with_subtasks JOIN task t ON t.parent_id = task_with_subtasks.child
-            )
             UPDATE task
             SET sprint_id =:sprintId
-            WHERE id IN (SELECT child FROM task_with_subtasks)
+            WHERE id IN (SELECT c.descendant_id FROM task_closure c JOIN task t ON t.id = c.ancestor_id
+                         WHERE c.ancestor_id =:taskId AND t.parent_id IS NULL)
             """, nativeQuery = true)
     void setTaskAndSubTasksSprint(long taskId, Long sprintId);
+
+    //  nearest first
+    @Query(value = "SELECT t.* FROM task t JOIN task_closure c ON c.ancestor_id = t.id WHERE c.descendant_id =:taskId AND c.depth > 0 ORDER BY c.depth",
+            nativeQuery = true)
+    List<Task> findAncestors(long taskId);
+
+    //  level by level, then by id
+    @Query(value = "SELECT t.* FROM task t JOIN task_closure c ON c.descendant_id = t.id WHERE c.ancestor_id =:taskId AND c.depth > 0 ORDER BY c.depth, t.id",
+            nativeQuery = true)
+    List<Task> findDescendants(long taskId);
+
+    @Modifying
+    @Query(value = "UPDATE task SET status_code =:statusCode, updated =:updated WHERE id IN (:taskIds)", nativeQuery = true)
+    int setStatus(Collection<Long> taskIds, String statusCode, LocalDateTime updated);
+
+    @Modifying
+    @Query(value = """
+            UPDATE task
+            SET sprint_id =:sprintId
+            WHERE id IN (SELECT descendant_id FROM task_closure WHERE ancestor_id IN (:taskIds))
+            """, nativeQuery = true)
+    void setTasksAndSubTasksSprint(Collection<Long> taskIds, Long sprintId);
+
+    @Modifying
+    @Query(value = "INSERT INTO task_tag (task_id, tag) SELECT id, :tag FROM task WHERE id IN (:taskIds) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int addTag(Collection<Long> taskIds, String tag);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_tag WHERE task_id IN (:taskIds) AND tag =:tag", nativeQuery = true)
+    int removeTag(Collection<Long> taskIds, String tag);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_tag WHERE task_id =:taskId AND tag NOT IN (:tags)", nativeQuery = true)
+    void removeTagsExcept(long taskId, Collection<String> tags);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_tag WHERE task_id =:taskId", nativeQuery = true)
+    void removeAllTags(long taskId);
+
+    @Query(value = "SELECT tag FROM task_tag WHERE task_id =:taskId", nativeQuery = true)
+    Set<String> findAllTags(long taskId);
+
+    //  recalculate task current state after activity update/delete (latest activity could be changed)
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE task t
+            SET description   = (SELECT a.description FROM activity a WHERE a.task_id = t.id AND a.description IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1),
+                priority_code = (SELECT a.priority_code FROM activity a WHERE a.task_id = t.id AND a.priority_code IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1),
+                estimate      = (SELECT a.estimate FROM activity a WHERE a.task_id = t.id AND a.estimate IS NOT NULL ORDER BY a.updated DESC, a.id DESC LIMIT 1),
+                updated       = (SELECT max(a.updated) FROM activity a WHERE a.task_id = t.id)
+            WHERE t.id =:taskId
+            """, nativeQuery = true)
+    void refreshFromActivities(long taskId);
 }
@@ -0,0 +1,99 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.task.to.TaskSearchResultTo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+
+/**
+ * Full-text search over generated TASK.SEARCH_VECTOR (title, description) and ACTIVITY.SEARCH_VECTOR (comment, description),
+ * both with GIN indexes. Filters are applied to both sources before ranking. Task rank is the best rank of the task itself or of its activities;
+ * highlights are calculated for the requested page only.
+ * <p>
+ * Each source contributes at most {@link #MAX_CANDIDATES} best ranked hits, so aggregation and paging never work over
+ * the whole table for common words. ts_headline keeps the source text as is, so matches are marked with control characters
+ * and the whole headline is HTML-escaped before the markers become {@code <mark>} tags.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskSearchRepository {
+    static final int MAX_CANDIDATES = 1000;
+    private static final String START_SEL = "\u0001";
+    private static final String STOP_SEL = "\u0002";
+    private static final String HEADLINE_OPTIONS = "StartSel=" + START_SEL + ", StopSel=" + STOP_SEL + ", MaxFragments=2, MaxWords=20, MinWords=5";
+    private static final String TITLE_OPTIONS = "HighlightAll=true, StartSel=" + START_SEL + ", StopSel=" + STOP_SEL;
+
+    private static final String SEARCH = """
+            WITH q AS (SELECT websearch_to_tsquery('english', :query) AS query),
+                 hits AS ((SELECT t.id AS task_id, ts_rank(t.search_vector, q.query) AS rank
+                           FROM task t, q
+                           WHERE t.search_vector @@ q.query AND %1$s
+                           ORDER BY rank DESC
+                           LIMIT :candidates)
+                          UNION ALL
+                          (SELECT t.id, ts_rank(a.search_vector, q.query) AS rank
+                           FROM activity a JOIN task t ON t.id = a.task_id, q
+                           WHERE a.search_vector @@ q.query AND %1$s
+                           ORDER BY rank DESC
+                           LIMIT :candidates)),
+                 page AS (SELECT t.*, h.rank
+                          FROM (SELECT task_id, max(rank) AS rank FROM hits GROUP BY task_id) h
+                              JOIN task t ON t.id = h.task_id
+                          ORDER BY h.rank DESC, t.id DESC
+                          LIMIT :limit OFFSET :offset)
+            SELECT p.id, p.title, p.type_code, p.status_code, p.project_id, p.sprint_id, p.rank,
+                   ts_headline('english', p.title, q.query, :titleOptions) AS title_highlight,
+                   CASE WHEN p.description IS NOT NULL THEN ts_headline('english', p.description, q.query, :options) END AS description_highlight,
+                   (SELECT ts_headline('english', concat_ws(' ', a.comment, a.description), q.query, :options)
+                    FROM activity a
+                    WHERE a.task_id = p.id AND a.search_vector @@ q.query
+                    ORDER BY ts_rank(a.search_vector, q.query) DESC, a.id DESC
+                    LIMIT 1) AS activity_highlight
+            FROM page p, q
+            ORDER BY p.rank DESC, p.id DESC
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    List<TaskSearchResultTo> search(String query, @Nullable Long projectId, @Nullable Long sprintId, @Nullable String statusCode,
+                                    @Nullable String tag, int limit, int offset) {
+        StringBuilder where = new StringBuilder("TRUE");
+        MapSqlParameterSource params = new MapSqlParameterSource("query", query)
+                .addValue("options", HEADLINE_OPTIONS)
+                .addValue("titleOptions", TITLE_OPTIONS)
+                .addValue("candidates", MAX_CANDIDATES)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+        if (projectId != null) {
+            where.append(" AND t.project_id = :projectId");
+            params.addValue("projectId", projectId);
+        }
+        if (sprintId != null) {
+            where.append(" AND t.sprint_id = :sprintId");
+            params.addValue("sprintId", sprintId);
+        }
+        if (statusCode != null) {
+            where.append(" AND t.status_code = :statusCode");
+            params.addValue("statusCode", statusCode);
+        }
+        if (tag != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM task_tag tt WHERE tt.task_id = t.id AND tt.tag = :tag)");
+            params.addValue("tag", tag);
+        }
+        return jdbcTemplate.query(String.format(SEARCH, where), params, (rs, rowNum) -> new TaskSearchResultTo(
+                rs.getLong("id"), rs.getString("type_code") + '-' + rs.getLong("id"), rs.getString("title"),
+                rs.getString("type_code"), rs.getString("status_code"), rs.getLong("project_id"), rs.getObject("sprint_id", Long.class),
+                rs.getDouble("rank"), highlight(rs.getString("title_highlight")), highlight(rs.getString("description_highlight")),
+                highlight(rs.getString("activity_highlight"))));
+    }
+
+    static String highlight(@Nullable String headline) {
+        return headline == null ? null :
+                HtmlUtils.htmlEscape(headline).replace(START_SEL, "<mark>").replace(STOP_SEL, "</mark>");
+    }
+}
@@ -0,0 +1,37 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.task.to.TaskSearchResultTo;
+import com.codegym.jira.common.error.IllegalRequestDataException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class TaskSearchService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_QUERY_LENGTH = 256;
+
+    private final TaskSearchRepository repository;
+
+    /**
+     * Search tasks by words in title, description and activity comments/descriptions, best matches first
+     *
+     * @param query search words, supports web search syntax ("quoted phrase", or, -excluded)
+     */
+    @Transactional(readOnly = true)
+    public List<TaskSearchResultTo> search(String query, @Nullable Long projectId, @Nullable Long sprintId,
+                                           @Nullable String statusCode, @Nullable String tag, int page, int size) {
+        if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalRequestDataException("Search query must not be blank or longer than " + MAX_QUERY_LENGTH);
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalRequestDataException("Page must be positive, page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return repository.search(query, projectId, sprintId, statusCode, tag, size, page * size);
+    }
+}
@@ -1,5 +1,6 @@
 package com.codegym.jira.bugtracking.task;
 
+import com.codegym.jira.bugtracking.ClosureRepository;
 import com.codegym.jira.bugtracking.Handlers;
 import com.codegym.jira.bugtracking.ObjectType;
 import com.codegym.jira.bugtracking.UserBelong;
@@ -10,21 +11,24 @@ import com.codegym.jira.common.error.DataConflictException;
 import com.codegym.jira.common.error.NotFoundException;
 import com.codegym.jira.common.util.Util;
 import com.codegym.jira.login.AuthUser;
-import com.codegym.jira.ref.RefType;
-import com.codegym.jira.ref.ReferenceService;
+import com.codegym.jira.ref.TaskWorkflow;
 import com.codegym.jira.bugtracking.sprint.Sprint;
 import com.codegym.jira.bugtracking.sprint.SprintRepository;
 import com.codegym.jira.bugtracking.task.to.TaskToExt;
 import com.codegym.jira.bugtracking.task.to.TaskToFull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.HashSet;
+
+import static com.codegym.jira.bugtracking.task.TaskNotificationEvent.Kind.ASSIGNED;
+import static com.codegym.jira.bugtracking.task.TaskNotificationEvent.Kind.STATUS_CHANGED;
 
 @Service
 @RequiredArgsConstructor
@@ -38,6 +42,10 @@ public class TaskService {
     private final SprintRepository sprintRepository;
     private final TaskExtMapper extMapper;
     private final UserBelongRepository userBelongRepository;
+    private final TaskTimingRepository timingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TaskBulkRepository bulkRepository;
+    private final ClosureRepository closureRepository;
 
     @Transactional
     public void changeStatus(long taskId, String statusCode) {
@@ -47,11 +55,13 @@ public class TaskService {
             task.checkAndSetStatusCode(statusCode);
             Activity statusChangedActivity = new Activity(null, taskId, AuthUser.authId());
             statusChangedActivity.setStatusCode(statusCode);
-            activityHandler.create(statusChangedActivity);
-            String userType = ReferenceService.getRefTo(RefType.TASK_STATUS, statusCode).getAux(1);
+            TaskUtil.applyActivity(task, activityHandler.create(statusChangedActivity));
+            timingRepository.recordStatus(taskId, statusCode, task.getUpdated());
+            String userType = TaskWorkflow.get().assigneeUserType(statusCode);
             if (userType != null) {
                 handler.createUserBelong(taskId, ObjectType.TASK, AuthUser.authId(), userType);
             }
+            eventPublisher.publishEvent(new TaskNotificationEvent(List.of(taskId), STATUS_CHANGED, AuthUser.authId(), statusCode));
         }
     }
 
@@ -73,25 +83,33 @@ public class TaskService {
     @Transactional
     public Task create(TaskToExt taskTo) {
         Task created = handler.createWithBelong(taskTo, ObjectType.TASK, "task_author");
-        activityHandler.create(TaskUtil.makeActivity(created.id(), taskTo));
+        closureRepository.insert(ObjectType.TASK, created.id(), created.getParentId());
+        TaskUtil.applyActivity(created, activityHandler.create(TaskUtil.makeActivity(created.id(), taskTo)));
+        timingRepository.recordStatus(created.id(), taskTo.getStatusCode(), created.getUpdated());
+        eventPublisher.publishEvent(new TaskTagsChangedEvent(List.of(created.id())));
         return created;
     }
 
     @Transactional
     public void update(TaskToExt taskTo, long id) {
-        if (!taskTo.equals(get(taskTo.id()))) {
-            handler.updateFromTo(taskTo, id);
-            activityHandler.create(TaskUtil.makeActivity(id, taskTo));
+        TaskToFull current = get(taskTo.id());
+        if (!taskTo.equals(current)) {
+            closureRepository.move(ObjectType.TASK, id, handler.getRepository().getExisted(id).getParentId(), taskTo.getParentId());
+            Task task = handler.updateFromTo(taskTo, id);
+            TaskUtil.applyActivity(task, activityHandler.create(TaskUtil.makeActivity(id, taskTo)));
+            timingRepository.recordStatus(id, taskTo.getStatusCode(), task.getUpdated());
+            if (!Objects.equals(current.getStatusCode(), taskTo.getStatusCode())) {
+                eventPublisher.publishEvent(new TaskNotificationEvent(List.of(id), STATUS_CHANGED, AuthUser.authId(), taskTo.getStatusCode()));
+            }
+            if (!Objects.equals(current.getProjectId(), task.getProjectId())) {
+                eventPublisher.publishEvent(new TaskTagsChangedEvent(List.of(id)));
+            }
         }
     }
 
     public TaskToFull get(long id) {
         Task task = Util.checkExist(id, handler.getRepository().findFullById(id));
-        TaskToFull taskToFull = fullMapper.toTo(task);
-        List<Activity> activities = activityHandler.getRepository().findAllByTaskIdOrderByUpdatedDesc(id);
-        TaskUtil.fillExtraFields(taskToFull, activities);
-        taskToFull.setActivityTos(activityHandler.getMapper().toToList(activities));
-        return taskToFull;
+        return fullMapper.toTo(task);
     }
 
     public TaskToExt getNewWithSprint(long sprintId) {
@@ -120,6 +138,7 @@ public class TaskService {
     public void assign(long id, String userType, long userId) {
         checkAssignmentActionPossible(id, userType, true);
         handler.createUserBelong(id, ObjectType.TASK, userId, userType);
+        eventPublisher.publishEvent(new TaskNotificationEvent(List.of(id), ASSIGNED, AuthUser.authId(), userType, userId));
     }
 
     @Transactional
@@ -134,7 +153,7 @@ public class TaskService {
     private void checkAssignmentActionPossible(long id, String userType, boolean assign) {
         Assert.notNull(userType, "userType must not be null");
         Task task = handler.getRepository().getExisted(id);
-        String possibleUserType = ReferenceService.getRefTo(RefType.TASK_STATUS, task.getStatusCode()).getAux(1);
+        String possibleUserType = TaskWorkflow.get().assigneeUserType(task.getStatusCode());
         if (!userType.equals(possibleUserType)) {
             throw new DataConflictException(String.format(assign ? CANNOT_ASSIGN : CANNOT_UN_ASSIGN, userType, task.getStatusCode()));
         }
@@ -149,12 +168,12 @@ public class TaskService {
      */
     @Transactional
     public Set<String> addTag(long taskId, String tag) {
-        Assert.notNull(tag, "tag must not be null");
-        Task task = handler.getRepository().getExisted(taskId);
-        Set<String> tags = new HashSet<>(task.getTags());
-        tags.add(tag);
-        task.setTags(tags);
-        return tags;
+        TaskUtil.checkTag(tag);
+        TaskRepository repository = handler.getRepository();
+        repository.checkExisted(taskId);
+        repository.addTag(List.of(taskId), tag);
+        eventPublisher.publishEvent(new TaskTagsChangedEvent(List.of(taskId)));
+        return repository.findAllTags(taskId);
     }
     
     /**
@@ -167,11 +186,11 @@ public class TaskService {
     @Transactional
     public Set<String> removeTag(long taskId, String tag) {
         Assert.notNull(tag, "tag must not be null");
-        Task task = handler.getRepository().getExisted(taskId);
-        Set<String> tags = new HashSet<>(task.getTags());
-        tags.remove(tag);
-        task.setTags(tags);
-        return tags;
+        TaskRepository repository = handler.getRepository();
+        repository.checkExisted(taskId);
+        repository.removeTag(List.of(taskId), tag);
+        eventPublisher.publishEvent(new TaskTagsChangedEvent(List.of(taskId)));
+        return repository.findAllTags(taskId);
     }
     
     /**
@@ -182,8 +201,9 @@ public class TaskService {
      */
     @Transactional(readOnly = true)
     public Set<String> getTags(long taskId) {
-        Task task = handler.getRepository().getExisted(taskId);
-        return task.getTags();
+        TaskRepository repository = handler.getRepository();
+        repository.checkExisted(taskId);
+        return repository.findAllTags(taskId);
     }
     
     /**
@@ -196,8 +216,16 @@ public class TaskService {
     @Transactional
     public Set<String> setTags(long taskId, Set<String> tags) {
         Assert.notNull(tags, "tags must not be null");
-        Task task = handler.getRepository().getExisted(taskId);
-        task.setTags(tags);
+        tags.forEach(TaskUtil::checkTag);
+        TaskRepository repository = handler.getRepository();
+        repository.checkExisted(taskId);
+        if (tags.isEmpty()) {
+            repository.removeAllTags(taskId);
+        } else {
+            repository.removeTagsExcept(taskId, tags);
+            bulkRepository.insertTags(taskId, tags);
+        }
+        eventPublisher.publishEvent(new TaskTagsChangedEvent(List.of(taskId)));
         return tags;
     }
 }
@@ -0,0 +1,9 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.common.AppEvent;
+
+import java.util.Collection;
+
+// tags or project of tasks were changed or tasks were deleted, published inside the changing transaction
+public record TaskTagsChangedEvent(Collection<Long> taskIds) implements AppEvent {
+}
@@ -0,0 +1,89 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.task.to.TaskTimingTo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Task status transition timestamps (TASK_TIMING), maintained at write time:
+ * new status activities are applied incrementally, updated/deleted activities recalculate the task row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskTimingRepository {
+    static final String IN_PROGRESS = "in_progress";
+    static final String READY_FOR_REVIEW = "ready_for_review";
+    static final String DONE = "done";
+    private static final Set<String> TRACKED_STATUSES = Set.of(IN_PROGRESS, READY_FOR_REVIEW, DONE);
+
+    //  keep the first transition only: "developed" requires "started", "done" requires "review_started"
+    private static final String RECORD_STATUS = """
+            INSERT INTO task_timing (task_id, started, review_started, done)
+            VALUES (:taskId, CASE WHEN :status = 'in_progress' THEN :at END, CASE WHEN :status = 'ready_for_review' THEN :at END, NULL)
+            ON CONFLICT (task_id) DO UPDATE SET
+                started        = COALESCE(task_timing.started, excluded.started),
+                developed      = CASE WHEN task_timing.developed IS NULL AND task_timing.started IS NOT NULL THEN excluded.review_started ELSE task_timing.developed END,
+                review_started = COALESCE(task_timing.review_started, excluded.review_started),
+                done           = CASE WHEN task_timing.done IS NULL AND task_timing.review_started IS NOT NULL AND :status = 'done' THEN :at ELSE task_timing.done END
+            """;
+
+    private static final String REFRESH = """
+            INSERT INTO task_timing (task_id, started, developed, review_started, done)
+            SELECT t.id,
+                   s.started,
+                   (SELECT min(a.updated) FROM activity a WHERE a.task_id = t.id AND a.status_code = 'ready_for_review' AND a.updated >= s.started),
+                   r.review_started,
+                   (SELECT min(a.updated) FROM activity a WHERE a.task_id = t.id AND a.status_code = 'done' AND a.updated >= r.review_started)
+            FROM task t
+                CROSS JOIN LATERAL (SELECT min(a.updated) AS started FROM activity a WHERE a.task_id = t.id AND a.status_code = 'in_progress') s
+                CROSS JOIN LATERAL (SELECT min(a.updated) AS review_started FROM activity a WHERE a.task_id = t.id AND a.status_code = 'ready_for_review') r
+            WHERE t.id = :taskId
+            ON CONFLICT (task_id) DO UPDATE SET
+                started        = excluded.started,
+                developed      = excluded.developed,
+                review_started = excluded.review_started,
+                done           = excluded.done
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public Optional<TaskTimingTo> get(long taskId) {
+        return jdbcTemplate.query("SELECT * FROM task_timing WHERE task_id = :taskId", new MapSqlParameterSource("taskId", taskId),
+                (rs, rowNum) -> TaskTimingTo.of(taskId,
+                        rs.getObject("started", LocalDateTime.class), rs.getObject("developed", LocalDateTime.class),
+                        rs.getObject("review_started", LocalDateTime.class), rs.getObject("done", LocalDateTime.class))
+        ).stream().findFirst();
+    }
+
+    void recordStatus(long taskId, String statusCode, LocalDateTime at) {
+        if (statusCode != null && TRACKED_STATUSES.contains(statusCode)) {
+            jdbcTemplate.update(RECORD_STATUS, statusParams(taskId, statusCode, at));
+        }
+    }
+
+    void recordStatus(Collection<Long> taskIds, String statusCode, LocalDateTime at) {
+        if (statusCode != null && TRACKED_STATUSES.contains(statusCode)) {
+            jdbcTemplate.batchUpdate(RECORD_STATUS, taskIds.stream()
+                    .map(taskId -> statusParams(taskId, statusCode, at))
+                    .toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    void refresh(long taskId) {
+        jdbcTemplate.update(REFRESH, new MapSqlParameterSource("taskId", taskId));
+    }
+
+    private static SqlParameterSource statusParams(long taskId, String statusCode, LocalDateTime at) {
+        return new MapSqlParameterSource("taskId", taskId)
+                .addValue("status", statusCode)
+                .addValue("at", at);
+    }
+}
@@ -0,0 +1,54 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.task.to.TaskTreeTo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Sprint tasks already in depth-first order, ordered by database (no tree assembly in Java).
+ * Siblings are ordered by startpoint desc; a subtask whose parent is in another sprint is a root.
+ * Sort key is the array of sibling positions from root, so ORDER BY path gives pre-order traversal.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskTreeRepository {
+    private static final String SPRINT_TREE = """
+            WITH RECURSIVE sprint_task AS (
+                SELECT t.id,
+                       CASE WHEN p.id IS NOT NULL THEN t.parent_id END AS tree_parent,
+                       row_number() OVER (PARTITION BY CASE WHEN p.id IS NOT NULL THEN t.parent_id END
+                                          ORDER BY t.startpoint DESC, t.id DESC) AS pos
+                FROM task t
+                    LEFT JOIN task p ON p.id = t.parent_id AND p.sprint_id = :sprintId
+                WHERE t.sprint_id = :sprintId),
+            tree AS (
+                SELECT id, 0 AS depth, ARRAY[pos] AS path
+                FROM sprint_task
+                WHERE tree_parent IS NULL
+                UNION ALL
+                SELECT st.id, tree.depth + 1, tree.path || st.pos
+                FROM tree JOIN sprint_task st ON st.tree_parent = tree.id)
+            SELECT t.id, t.type_code, t.title, t.status_code, t.parent_id, t.project_id, t.sprint_id, tree.depth,
+                   coalesce(c.child_count, 0) AS child_count
+            FROM tree
+                JOIN task t ON t.id = tree.id
+                LEFT JOIN (SELECT tree_parent, count(*) AS child_count FROM sprint_task GROUP BY tree_parent) c ON c.tree_parent = t.id
+            ORDER BY tree.path
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<TaskTreeTo> getSprintTree(long sprintId) {
+        return jdbcTemplate.query(SPRINT_TREE, new MapSqlParameterSource("sprintId", sprintId), (rs, rowNum) -> {
+            long id = rs.getLong("id");
+            String typeCode = rs.getString("type_code");
+            return new TaskTreeTo(id, typeCode + '-' + id, rs.getString("title"), typeCode, rs.getString("status_code"),
+                    rs.getObject("parent_id", Long.class), rs.getLong("project_id"), rs.getObject("sprint_id", Long.class),
+                    rs.getInt("depth"), rs.getInt("child_count"));
+        });
+    }
+}
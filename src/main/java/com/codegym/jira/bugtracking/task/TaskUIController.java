@@ -2,28 +2,27 @@ package com.codegym.jira.bugtracking.task;
 
 import com.codegym.jira.bugtracking.Handlers;
 import com.codegym.jira.bugtracking.ObjectType;
-import com.codegym.jira.ref.RefTo;
 import com.codegym.jira.ref.RefType;
 import com.codegym.jira.ref.ReferenceService;
+import com.codegym.jira.ref.TaskWorkflow;
 import com.codegym.jira.bugtracking.attachment.AttachmentRepository;
 import com.codegym.jira.bugtracking.task.to.ActivityTo;
 import com.codegym.jira.bugtracking.task.to.TaskToExt;
 import com.codegym.jira.bugtracking.task.to.TaskToFull;
+import com.codegym.jira.bugtracking.task.to.TimelineEntryTo;
+import com.codegym.jira.bugtracking.task.to.TimelinePageTo;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 @Slf4j
 @Controller
@@ -37,14 +36,14 @@ public class TaskUIController {
 
     private final TaskService service;
     private final AttachmentRepository attachmentRepository;
-    private final Handlers.ActivityHandler activityHandler;
+    private final TimelineService timelineService;
     private final Handlers.AttachmentHandler attachmentHandler;
     private final Handlers.TaskHandler taskHandler;
 
     @GetMapping("/{id}")
     public String get(@PathVariable long id, @RequestParam(required = false) boolean fragment, Model model) {
         log.info("get {}", id);
-        TaskToFull taskTo = service.get(id);
+        TaskToFull taskTo = getWithActivities(id, model);
         addTaskInfo(model, taskTo);
         model.addAttribute("fragment", fragment);
         model.addAttribute("belongs", taskHandler.getAllBelongs(id));
@@ -54,7 +53,7 @@ public class TaskUIController {
     @GetMapping("/edit/{id}")
     public String showEditForm(@PathVariable long id, Model model) {
         log.info("show edit form for task {}", id);
-        TaskToFull taskTo = service.get(id);
+        TaskToFull taskTo = getWithActivities(id, model);
         addTaskInfo(model, taskTo);
         addRefs(model, taskTo.getStatusCode());
         return VIEW_TASK_EDIT;
@@ -88,12 +87,13 @@ public class TaskUIController {
     public String createOrUpdate(@Valid @ModelAttribute("task") TaskToExt taskTo, BindingResult result, Model model) {
         if (result.hasErrors()) {
             addRefs(model, taskTo.getStatusCode());
-            List<ActivityTo> activityTos = taskTo.isNew() ? Collections.emptyList() :
-                    activityHandler.getMapper().toToList(activityHandler.getRepository().findAllByTaskIdOrderByUpdatedDesc(taskTo.getId()));
+            List<ActivityTo> activityTos = new ArrayList<>();
+            String nextCursor = taskTo.isNew() ? null : addFirstPage(taskTo.getId(), activityTos);
             List<ActivityTo> comments = getComments(activityTos);
             activityTos.removeAll(comments);
             model.addAttribute("comments", comments);
             model.addAttribute("activities", activityTos);
+            model.addAttribute("nextCursor", nextCursor);
             if (!taskTo.isNew()) {
                 model.addAttribute("attachs", attachmentHandler.getRepository().getAllForObject(taskTo.id(), ObjectType.TASK));
             }
@@ -111,6 +111,26 @@ public class TaskUIController {
         return "redirect:/ui/tasks/" + taskId;
     }
 
+    //  the first timeline page, older entries are loaded by the page from /api/tasks/{id}/timeline
+    private TaskToFull getWithActivities(long id, Model model) {
+        TaskToFull taskTo = service.get(id);
+        List<ActivityTo> activityTos = new ArrayList<>();
+        model.addAttribute("nextCursor", addFirstPage(id, activityTos));
+        taskTo.setActivityTos(activityTos);
+        return taskTo;
+    }
+
+    //  attachments are listed separately
+    @Nullable
+    private String addFirstPage(long id, List<ActivityTo> activityTos) {
+        TimelinePageTo page = timelineService.getTimeline(id, null, TimelineService.DEFAULT_PAGE_SIZE);
+        page.getEntries().stream()
+                .map(TimelineEntryTo::getActivity)
+                .filter(Objects::nonNull)
+                .forEach(activityTos::add);
+        return page.getNextCursor();
+    }
+
     private void addTaskInfo(Model model, TaskToFull taskTo) {
         List<ActivityTo> comments = getComments(taskTo.getActivityTos());
         taskTo.getActivityTos().removeAll(comments);
@@ -122,7 +142,7 @@ public class TaskUIController {
 
     private void addRefs(Model model, String currentStatus) {
         model.addAttribute("types", ReferenceService.getRefs(RefType.TASK));
-        model.addAttribute("statuses", getPossibleStatusRefs(currentStatus));
+        model.addAttribute("statuses", TaskWorkflow.get().allowedTargets(currentStatus));
         model.addAttribute("priorities", ReferenceService.getRefs(RefType.PRIORITY));
     }
 
@@ -134,19 +154,6 @@ public class TaskUIController {
 
     }
 
-    private Map<String, RefTo> getPossibleStatusRefs(String currentStatus) {
-        Set<String> possibleStatuses = new HashSet<>();
-        possibleStatuses.add(currentStatus);
-        Map<String, RefTo> taskStatusRefs = ReferenceService.getRefs(RefType.TASK_STATUS);
-        String possibleStatusesAux = taskStatusRefs.get(currentStatus).getAux(0);
-        if (possibleStatusesAux != null) {
-            possibleStatuses.addAll(Set.of(possibleStatusesAux.split(",")));
-        }
-        return taskStatusRefs.entrySet().stream()
-                .filter(ref -> possibleStatuses.contains(ref.getKey()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (ref1, ref2) -> ref1, LinkedHashMap::new));
-    }
-
     private List<ActivityTo> getComments(List<ActivityTo> activityTos) {
         return activityTos.stream()
                 .filter(activity -> activity.getComment() != null)
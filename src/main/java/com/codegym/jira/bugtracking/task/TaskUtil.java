@@ -1,58 +1,44 @@
 package com.codegym.jira.bugtracking.task;
 
 import com.codegym.jira.common.error.DataConflictException;
+import com.codegym.jira.common.error.IllegalRequestDataException;
 import com.codegym.jira.login.AuthUser;
-import com.codegym.jira.ref.RefTo;
-import com.codegym.jira.ref.RefType;
-import com.codegym.jira.ref.ReferenceService;
+import com.codegym.jira.ref.TaskWorkflow;
 import com.codegym.jira.bugtracking.task.to.TaskToExt;
-import com.codegym.jira.bugtracking.task.to.TaskToFull;
+import org.springframework.util.Assert;
 
-import java.util.*;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class TaskUtil {
 
-    static Map<String, RefTo> getPossibleStatusRefs(String currentStatus) {
-        Set<String> possibleStatuses = getPossibleStatuses(currentStatus);
-        return ReferenceService.getRefs(RefType.TASK_STATUS).entrySet().stream()
-                .filter(ref -> possibleStatuses.contains(ref.getKey()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (ref1, ref2) -> ref1, LinkedHashMap::new));
-    }
-
     static void checkStatusChangePossible(String currentStatus, String newStatus) {
-        if (!getPossibleStatuses(currentStatus).contains(newStatus)) {
+        if (!TaskWorkflow.get().canTransition(currentStatus, newStatus)) {
             throw new DataConflictException("Cannot change task status from " + currentStatus + " to " + newStatus);
         }
     }
 
-    private static Set<String> getPossibleStatuses(String currentStatus) {
-        Set<String> possibleStatuses = new HashSet<>();
-        possibleStatuses.add(currentStatus);
-        Map<String, RefTo> taskStatusRefs = ReferenceService.getRefs(RefType.TASK_STATUS);
-        String aux = taskStatusRefs.get(currentStatus).getAux(0);
-        possibleStatuses.addAll(aux == null ? Set.of() : Set.of(aux.split(",")));
-        return possibleStatuses;
+    //  tags are written by native queries, so Task.tags element constraint is checked here
+    static void checkTag(String tag) {
+        Assert.notNull(tag, "tag must not be null");
+        if (tag.length() < 2 || tag.length() > 32) {
+            throw new IllegalRequestDataException("Tag length must be between 2 and 32");
+        }
     }
 
-    static void fillExtraFields(TaskToFull taskToFull, List<Activity> activities) {
-        if (!activities.isEmpty()) {
-            taskToFull.setUpdated(activities.get(0).getUpdated());
-            for (Activity latest : activities) {
-                if (taskToFull.getDescription() == null && latest.getDescription() != null) {
-                    taskToFull.setDescription(latest.getDescription());
-                }
-                if (taskToFull.getPriorityCode() == null && latest.getPriorityCode() != null) {
-                    taskToFull.setPriorityCode(latest.getPriorityCode());
-                }
-                if (taskToFull.getEstimate() == null && latest.getEstimate() != null) {
-                    taskToFull.setEstimate(latest.getEstimate());
-                }
-                if (taskToFull.getDescription() != null && taskToFull.getPriorityCode() != null && taskToFull.getEstimate() != null)
-                    break;
-            }
+    //  incremental update of task current state by newly created (latest) activity
+    static void applyActivity(Task task, Activity activity) {
+        if (activity.getDescription() != null) {
+            task.setDescription(activity.getDescription());
+        }
+        if (activity.getPriorityCode() != null) {
+            task.setPriorityCode(activity.getPriorityCode());
+        }
+        if (activity.getEstimate() != null) {
+            task.setEstimate(activity.getEstimate());
         }
+        task.setUpdated(activity.getUpdated() == null ? LocalDateTime.now() : activity.getUpdated());
     }
 
     static String getLatestValue(List<Activity> activities, Function<Activity, String> valueExtractFunction) {
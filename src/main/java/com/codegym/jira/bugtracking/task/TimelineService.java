@@ -0,0 +1,142 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.bugtracking.Handlers;
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.bugtracking.attachment.Attachment;
+import com.codegym.jira.bugtracking.attachment.AttachmentRepository;
+import com.codegym.jira.bugtracking.task.to.ActivityTo;
+import com.codegym.jira.bugtracking.task.to.TimelineEntryTo;
+import com.codegym.jira.bugtracking.task.to.TimelinePageTo;
+import com.codegym.jira.common.error.IllegalRequestDataException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Task history (comments, field changes, attachments) with keyset pagination, newest first.
+ * Activities and attachments have own id sequences, so entries are ordered by (updated, source, id): on the same updated
+ * activities go before attachments. Cursor format is {@code <updated>_<kind>_<id>} of the last entry of the previous page,
+ * {@code <updated>_<id>} is accepted for activities; entries without updated go first and have {@code null} in the cursor.
+ */
+@Service
+@RequiredArgsConstructor
+public class TimelineService {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private static final Comparator<TimelineEntryTo> NEWEST_FIRST = Comparator
+            .comparing(TimelineEntryTo::getUpdated, Comparator.nullsFirst(Comparator.reverseOrder()))
+            .thenComparing(entry -> isAttachment(entry.getKind()))
+            .thenComparing(TimelineEntryTo::getId, Comparator.reverseOrder());
+
+    private final Handlers.ActivityHandler activityHandler;
+    private final Handlers.AttachmentHandler attachmentHandler;
+
+    @Transactional(readOnly = true)
+    public TimelinePageTo getTimeline(long taskId, @Nullable String cursor, int size) {
+        Cursor before = Cursor.parse(cursor);
+        Pageable limit = PageRequest.of(0, checkSize(size) + 1);  // one extra row shows that the next page exists
+        List<TimelineEntryTo> entries = new ArrayList<>();
+        getActivities(taskId, before, limit).forEach(activity -> entries.add(TimelineEntryTo.of(activity)));
+        getAttachments(taskId, before, limit).forEach(attachment ->
+                entries.add(TimelineEntryTo.of(attachmentHandler.getMapper().toTo(attachment), attachment.getDateTime())));
+        entries.sort(NEWEST_FIRST);
+        if (entries.size() <= size) {
+            return new TimelinePageTo(entries, null);
+        }
+        List<TimelineEntryTo> page = List.copyOf(entries.subList(0, size));
+        TimelineEntryTo last = page.get(size - 1);
+        return new TimelinePageTo(page, Cursor.toString(last.getUpdated(), last.getKind(), last.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ActivityTo> getActivities(long taskId, @Nullable String cursor, int size) {
+        return getActivities(taskId, Cursor.parse(cursor), PageRequest.of(0, checkSize(size)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ActivityTo> getComments(long taskId, @Nullable String cursor, int size) {
+        Cursor before = Cursor.parse(cursor);
+        Pageable limit = PageRequest.of(0, checkSize(size));
+        ActivityRepository repository = activityHandler.getRepository();
+        return activityHandler.getMapper().toToList(before == null ?
+                repository.findFirstCommentsPage(taskId, limit) :
+                before.updated() == null ?
+                        repository.findCommentsPageBeforeUndated(taskId, before.activityId(), limit) :
+                        repository.findCommentsPageBefore(taskId, before.updated(), before.activityId(), limit));
+    }
+
+    private List<ActivityTo> getActivities(long taskId, @Nullable Cursor before, Pageable limit) {
+        ActivityRepository repository = activityHandler.getRepository();
+        return activityHandler.getMapper().toToList(before == null ?
+                repository.findFirstPage(taskId, limit) :
+                before.updated() == null ?
+                        repository.findPageBeforeUndated(taskId, before.activityId(), limit) :
+                        repository.findPageBefore(taskId, before.updated(), before.activityId(), limit));
+    }
+
+    private List<Attachment> getAttachments(long taskId, @Nullable Cursor before, Pageable limit) {
+        AttachmentRepository repository = attachmentHandler.getRepository();
+        return before == null ?
+                repository.getFirstPageForObject(taskId, ObjectType.TASK, limit) :
+                before.updated() == null ?
+                        repository.getPageForObjectBeforeUndated(taskId, ObjectType.TASK, before.attachmentId(), limit) :
+                        repository.getPageForObjectBefore(taskId, ObjectType.TASK, before.updated(), before.attachmentId(), limit);
+    }
+
+    private static boolean isAttachment(TimelineEntryTo.Kind kind) {
+        return kind == TimelineEntryTo.Kind.ATTACHMENT;
+    }
+
+    private static int checkSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalRequestDataException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return size;
+    }
+
+    record Cursor(@Nullable LocalDateTime updated, TimelineEntryTo.Kind kind, long id) {
+        private static final String UNDATED = "null";
+
+        @Nullable
+        static Cursor parse(@Nullable String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            String[] parts = cursor.split("_", -1);
+            try {
+                if (parts.length < 2 || parts.length > 3) {
+                    throw new IllegalArgumentException();
+                }
+                LocalDateTime updated = UNDATED.equals(parts[0]) ? null : LocalDateTime.parse(parts[0]);
+                TimelineEntryTo.Kind kind = parts.length == 2 ? TimelineEntryTo.Kind.CHANGE : TimelineEntryTo.Kind.valueOf(parts[1]);
+                return new Cursor(updated, kind, Long.parseLong(parts[parts.length - 1]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalRequestDataException("Invalid cursor " + cursor);
+            }
+        }
+
+        static String toString(@Nullable LocalDateTime updated, TimelineEntryTo.Kind kind, long id) {
+            return (updated == null ? UNDATED : updated.toString()) + '_' + kind + '_' + id;
+        }
+
+        //  ids are positive: after an attachment all activities with the same updated are already shown
+        long activityId() {
+            return isAttachment(kind) ? 0 : id;
+        }
+
+        //  after an activity no attachment with the same updated is shown yet
+        long attachmentId() {
+            return isAttachment(kind) ? id : Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+import lombok.Value;
+
+@Value
+public class TaskBulkResultTo {
+    long taskId;
+
+    boolean success;
+
+    // failure cause, null if success
+    @Nullable
+    String detail;
+}
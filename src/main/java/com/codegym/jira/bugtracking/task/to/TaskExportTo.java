@@ -0,0 +1,39 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+// row of project tasks export, latest activity values are taken from task columns
+public record TaskExportTo(long id, String typeCode, String title, String statusCode, @Nullable String priorityCode,
+                           @Nullable Long parentId, long projectId, @Nullable Long sprintId,
+                           @Nullable String description, @Nullable Integer estimate,
+                           LocalDateTime startpoint, @Nullable LocalDateTime endpoint, @Nullable LocalDateTime updated,
+                           Set<String> tags) {
+
+    public static final String[] CSV_HEADER = {"id", "code", "title", "typeCode", "statusCode", "priorityCode", "parentId",
+            "projectId", "sprintId", "description", "estimate", "startpoint", "endpoint", "updated", "tags"};
+
+    // JPQL constructor expression, tags are loaded separately by batches
+    public TaskExportTo(long id, String typeCode, String title, String statusCode, String priorityCode,
+                        Long parentId, long projectId, Long sprintId, String description, Integer estimate,
+                        LocalDateTime startpoint, LocalDateTime endpoint, LocalDateTime updated) {
+        this(id, typeCode, title, statusCode, priorityCode, parentId, projectId, sprintId, description, estimate,
+                startpoint, endpoint, updated, Set.of());
+    }
+
+    public TaskExportTo withTags(Set<String> tags) {
+        return new TaskExportTo(id, typeCode, title, statusCode, priorityCode, parentId, projectId, sprintId, description, estimate,
+                startpoint, endpoint, updated, tags);
+    }
+
+    public String getCode() {
+        return typeCode + '-' + id;
+    }
+
+    public Object[] toCsvValues() {
+        return new Object[]{id, getCode(), title, typeCode, statusCode, priorityCode, parentId,
+                projectId, sprintId, description, estimate, startpoint, endpoint, updated, String.join(";", tags)};
+    }
+}
@@ -0,0 +1,13 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Found task, highlights contain matched words wrapped into {@code <mark>}
+ *
+ * @param activityHighlight best matched comment or description from task activities
+ */
+public record TaskSearchResultTo(long id, String code, String title, String typeCode, String statusCode,
+                                 long projectId, @Nullable Long sprintId, double rank,
+                                 String titleHighlight, @Nullable String descriptionHighlight, @Nullable String activityHighlight) {
+}
@@ -0,0 +1,28 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.Size;
+import lombok.Value;
+
+import java.util.Set;
+
+// tasks for bulk operation: explicit ids or filter (fields are combined with AND)
+@Value
+public class TaskSelectionTo {
+    @Nullable
+    @Size(min = 1, max = 5000)
+    Set<Long> ids;
+
+    @Nullable
+    Long projectId;
+
+    @Nullable
+    Long sprintId;
+
+    @Nullable
+    String statusCode;
+
+    public boolean isFilter() {
+        return ids == null;
+    }
+}
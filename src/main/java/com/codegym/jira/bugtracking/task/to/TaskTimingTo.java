@@ -0,0 +1,30 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Task status transition timestamps and durations in minutes.
+ *
+ * @param started            first transition to "in_progress"
+ * @param developed          first transition to "ready_for_review" after {@code started}
+ * @param reviewStarted      first transition to "ready_for_review"
+ * @param done               first transition to "done" after {@code reviewStarted}
+ * @param developmentMinutes time from "in_progress" to "ready_for_review"
+ * @param reviewMinutes      time from "ready_for_review" to "done"
+ */
+public record TaskTimingTo(long taskId,
+                           @Nullable LocalDateTime started, @Nullable LocalDateTime developed,
+                           @Nullable LocalDateTime reviewStarted, @Nullable LocalDateTime done,
+                           @Nullable Long developmentMinutes, @Nullable Long reviewMinutes) {
+
+    public static TaskTimingTo of(long taskId, LocalDateTime started, LocalDateTime developed, LocalDateTime reviewStarted, LocalDateTime done) {
+        return new TaskTimingTo(taskId, started, developed, reviewStarted, done, minutes(started, developed), minutes(reviewStarted, done));
+    }
+
+    private static Long minutes(LocalDateTime from, LocalDateTime to) {
+        return from == null || to == null ? null : Duration.between(from, to).toMinutes();
+    }
+}
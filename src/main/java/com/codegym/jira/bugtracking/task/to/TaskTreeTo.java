@@ -0,0 +1,17 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import lombok.Getter;
+
+// task in depth-first tree order: depth 0 is root, childCount is number of direct subtasks in the same list
+@Getter
+public class TaskTreeTo extends TaskTo {
+    private final int depth;
+    private final int childCount;
+
+    public TaskTreeTo(Long id, String code, String title, String typeCode, String statusCode, Long parentId, Long projectId, Long sprintId,
+                      int depth, int childCount) {
+        super(id, code, title, typeCode, statusCode, parentId, projectId, sprintId);
+        this.depth = depth;
+        this.childCount = childCount;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import com.codegym.jira.bugtracking.attachment.to.AttachmentTo;
+import jakarta.annotation.Nullable;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class TimelineEntryTo {
+    public enum Kind {
+        COMMENT,
+        CHANGE,
+        ATTACHMENT
+    }
+
+    Kind kind;
+    long id;
+    LocalDateTime updated;
+
+    @Nullable
+    ActivityTo activity;
+
+    @Nullable
+    AttachmentTo attachment;
+
+    public static TimelineEntryTo of(ActivityTo activity) {
+        return new TimelineEntryTo(activity.getComment() != null ? Kind.COMMENT : Kind.CHANGE, activity.id(), activity.getUpdated(), activity, null);
+    }
+
+    public static TimelineEntryTo of(AttachmentTo attachment, LocalDateTime dateTime) {
+        return new TimelineEntryTo(Kind.ATTACHMENT, attachment.id(), dateTime, null, attachment);
+    }
+}
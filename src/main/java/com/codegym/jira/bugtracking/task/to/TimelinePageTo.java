@@ -0,0 +1,15 @@
+package com.codegym.jira.bugtracking.task.to;
+
+import jakarta.annotation.Nullable;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class TimelinePageTo {
+    List<TimelineEntryTo> entries;
+
+    // pass as `cursor` to get the next (older) page, null for the last page
+    @Nullable
+    String nextCursor;
+}
@@ -0,0 +1,46 @@
+package com.codegym.jira.bugtracking.tree;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.common.error.IllegalRequestDataException;
+
+/**
+ * Kind of tree node, first part of node key {@code <kind>-<id>}.
+ * Backlog is keyed by project id, ROOT is the invisible parent of top-level projects.
+ */
+enum NodeKind {
+    ROOT(null),
+    PROJECT(ObjectType.PROJECT),
+    SPRINT(ObjectType.SPRINT),
+    BACKLOG(ObjectType.SPRINT),
+    TASK(ObjectType.TASK);
+
+    final ObjectType objectType;
+
+    NodeKind(ObjectType objectType) {
+        this.objectType = objectType;
+    }
+
+    String key(long id) {
+        return name() + '-' + id;
+    }
+
+    static NodeKind parseKind(String key) {
+        int idx = key.indexOf('-');
+        try {
+            NodeKind kind = valueOf(key.substring(0, idx));
+            if (kind != ROOT) {
+                return kind;
+            }
+        } catch (IndexOutOfBoundsException | IllegalArgumentException ignored) {
+        }
+        throw new IllegalRequestDataException("Invalid node key " + key);
+    }
+
+    static long parseId(String key) {
+        try {
+            return Long.parseLong(key.substring(key.indexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalRequestDataException("Invalid node key " + key);
+        }
+    }
+}
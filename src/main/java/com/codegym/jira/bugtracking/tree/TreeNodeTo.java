@@ -0,0 +1,42 @@
+package com.codegym.jira.bugtracking.tree;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Node of the paged tree (fancytree format).
+ * {@code children} is null when the level wasn't loaded, {@code cursor} points to the next page of children.
+ */
+@Getter
+@Setter(AccessLevel.PACKAGE)
+public class TreeNodeTo {
+    private final String key;
+    private final String title;
+    private final ObjectType nodeType;
+    //  backlog is sprint 0, like in the lazy endpoints
+    private final long id;
+    private final int childCount;
+    @Nullable
+    private List<TreeNodeTo> children;
+    @Nullable
+    private String cursor;
+
+    TreeNodeTo(String key, String title, ObjectType nodeType, long id, int childCount) {
+        this.key = key;
+        this.title = title;
+        this.nodeType = nodeType;
+        this.id = id;
+        this.childCount = childCount;
+    }
+
+    @JsonProperty
+    public boolean isLazy() {
+        return children == null && childCount > 0;
+    }
+}
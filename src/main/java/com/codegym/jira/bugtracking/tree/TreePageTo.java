@@ -0,0 +1,15 @@
+package com.codegym.jira.bugtracking.tree;
+
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+@Value
+public class TreePageTo {
+    List<TreeNodeTo> nodes;
+
+    // pass as `cursor` to get the next page of the same parent, null for the last page
+    @Nullable
+    String nextCursor;
+}
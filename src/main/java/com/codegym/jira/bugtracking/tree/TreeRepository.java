@@ -0,0 +1,106 @@
+package com.codegym.jira.bugtracking.tree;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Children of tree nodes: subprojects, sprints and backlog of project, root tasks of sprint/backlog, subtasks.
+ * A subtask is shown under its parent only when both are in the same sprint (or both in backlog), otherwise it is a root.
+ * Children are ordered by (rank, id desc): rank separates subprojects, sprints and backlog inside a project.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TreeRepository {
+    private static final String ROOT_CHILDREN = """
+            SELECT 0 AS parent_id, 'PROJECT' AS kind, p.id, p.code, 0 AS rank
+            FROM project p
+            WHERE p.parent_id IS NULL""";
+
+    private static final String PROJECT_CHILDREN = """
+            SELECT p.parent_id, 'PROJECT' AS kind, p.id, p.code, 0 AS rank
+            FROM project p
+            WHERE p.parent_id IN (:parentIds)
+            UNION ALL
+            SELECT s.project_id, 'SPRINT', s.id, s.code, 1
+            FROM sprint s
+            WHERE s.project_id IN (:parentIds)
+            UNION ALL
+            SELECT p.id, 'BACKLOG', p.id, 'Backlog', 2
+            FROM project p
+            WHERE p.id IN (:parentIds)""";
+
+    private static final String SPRINT_CHILDREN = """
+            SELECT t.sprint_id AS parent_id, 'TASK' AS kind, t.id, t.type_code || '-' || t.id AS code, 0 AS rank
+            FROM task t
+            WHERE t.sprint_id IN (:parentIds)
+              AND NOT EXISTS (SELECT 1 FROM task p WHERE p.id = t.parent_id AND p.sprint_id = t.sprint_id)""";
+
+    private static final String BACKLOG_CHILDREN = """
+            SELECT t.project_id AS parent_id, 'TASK' AS kind, t.id, t.type_code || '-' || t.id AS code, 0 AS rank
+            FROM task t
+            WHERE t.project_id IN (:parentIds) AND t.sprint_id IS NULL
+              AND NOT EXISTS (SELECT 1 FROM task p WHERE p.id = t.parent_id AND p.project_id = t.project_id AND p.sprint_id IS NULL)""";
+
+    private static final String TASK_CHILDREN = """
+            SELECT t.parent_id, 'TASK' AS kind, t.id, t.type_code || '-' || t.id AS code, 0 AS rank
+            FROM task t
+                JOIN task p ON p.id = t.parent_id
+            WHERE t.parent_id IN (:parentIds) AND t.sprint_id IS NOT DISTINCT FROM p.sprint_id""";
+
+    private static final String AFTER = "(CAST(:afterRank AS int) IS NULL OR c.rank > :afterRank OR (c.rank = :afterRank AND c.id < :afterId))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    record Child(long parentId, NodeKind kind, long id, String code, int rank) {
+    }
+
+    /**
+     * First {@code limit} children of every parent (after {@code after} position), grouped by parent.
+     * Single parent is a plain keyset query, several parents (tree hydration) are limited by row_number.
+     */
+    List<Child> findChildren(NodeKind kind, Collection<Long> parentIds, @Nullable Child after, int limit) {
+        String children = childrenSql(kind);
+        String sql = parentIds.size() == 1 ?
+                "SELECT * FROM (" + children + ") c WHERE " + AFTER + " ORDER BY c.rank, c.id DESC LIMIT :limit" :
+                "SELECT * FROM (SELECT c.*, row_number() OVER (PARTITION BY c.parent_id ORDER BY c.rank, c.id DESC) AS rn " +
+                        "FROM (" + children + ") c WHERE " + AFTER + ") c WHERE c.rn <= :limit ORDER BY c.parent_id, c.rank, c.id DESC";
+        MapSqlParameterSource params = new MapSqlParameterSource("parentIds", parentIds)
+                .addValue("afterRank", after == null ? null : after.rank(), Types.INTEGER)
+                .addValue("afterId", after == null ? null : after.id(), Types.BIGINT)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> new Child(rs.getLong("parent_id"),
+                NodeKind.valueOf(rs.getString("kind")), rs.getLong("id"), rs.getString("code"), rs.getInt("rank")));
+    }
+
+    /**
+     * Number of children of every node by one aggregate query, nodes without children are absent.
+     */
+    Map<Long, Integer> countChildren(NodeKind kind, Collection<Long> ids) {
+        Map<Long, Integer> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT c.parent_id, count(*) AS child_count FROM (" + childrenSql(kind) + ") c GROUP BY c.parent_id",
+                new MapSqlParameterSource("parentIds", ids),
+                rs -> {
+                    counts.put(rs.getLong("parent_id"), rs.getInt("child_count"));
+                });
+        return counts;
+    }
+
+    private static String childrenSql(NodeKind kind) {
+        return switch (kind) {
+            case ROOT -> ROOT_CHILDREN;
+            case PROJECT -> PROJECT_CHILDREN;
+            case SPRINT -> SPRINT_CHILDREN;
+            case BACKLOG -> BACKLOG_CHILDREN;
+            case TASK -> TASK_CHILDREN;
+        };
+    }
+}
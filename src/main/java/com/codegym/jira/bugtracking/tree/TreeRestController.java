@@ -15,6 +15,7 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
@@ -35,6 +36,7 @@ public class TreeRestController {
     private final SprintMapper sprintMapper;
     private final TaskRepository taskRepository;
     private final TaskMapper taskMapper;
+    private final TreeService treeService;
 
     private static <T> List<TreeNode> toTree(List<T> list, Function<T, NodeTo> mapper) {
         List<NodeTo> nodes = list.stream()
@@ -68,4 +70,21 @@ public class TreeRestController {
         log.info("get project {} backlog tasks", projectId);
         return toTree(taskMapper.toToList(taskRepository.findAllByProjectIdAndSprintIsNull(projectId)), mapper::fromTask);
     }
+
+    @GetMapping("/nodes")
+    public TreePageTo getRootNodes(@RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "1") int depth,
+                                   @RequestParam(defaultValue = "" + TreeService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("get tree roots, cursor={}, depth={}, size={}", cursor, depth, size);
+        return treeService.getRoots(cursor, depth, size);
+    }
+
+    @GetMapping("/nodes/{key}/children")
+    public TreePageTo getChildNodes(@PathVariable String key,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(defaultValue = "1") int depth,
+                                    @RequestParam(defaultValue = "" + TreeService.DEFAULT_PAGE_SIZE) int size) {
+        log.info("get tree node {} children, cursor={}, depth={}, size={}", key, cursor, depth, size);
+        return treeService.getChildren(key, cursor, depth, size);
+    }
 }
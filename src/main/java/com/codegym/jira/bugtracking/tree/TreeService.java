@@ -0,0 +1,144 @@
+package com.codegym.jira.bugtracking.tree;
+
+import com.codegym.jira.bugtracking.tree.TreeRepository.Child;
+import com.codegym.jira.common.error.IllegalRequestDataException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paged tree: a page of children of one node, hydrated {@code depth} levels down in one request.
+ * Every node has child count, every loaded level has the first page of children and cursor to the next one.
+ * Number of queries depends on depth only (one children and one count query per node kind and level).
+ * Cursor format is {@code <rank>_<id>} of the last node of the previous page.
+ */
+@Service
+@RequiredArgsConstructor
+public class TreeService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_DEPTH = 4;
+    //  stop hydration of deeper levels, rest of nodes stay lazy
+    static final int MAX_NODES = 2000;
+
+    private final TreeRepository repository;
+
+    @Transactional(readOnly = true)
+    public TreePageTo getRoots(@Nullable String cursor, int depth, int size) {
+        return getPage(NodeKind.ROOT, 0, cursor, depth, size);
+    }
+
+    @Transactional(readOnly = true)
+    public TreePageTo getChildren(String key, @Nullable String cursor, int depth, int size) {
+        return getPage(NodeKind.parseKind(key), NodeKind.parseId(key), cursor, depth, size);
+    }
+
+    private TreePageTo getPage(NodeKind kind, long id, @Nullable String cursor, int depth, int size) {
+        check(depth, MAX_DEPTH, "Depth");
+        check(size, MAX_PAGE_SIZE, "Page size");
+        List<Child> rows = repository.findChildren(kind, List.of(id), parseCursor(cursor), size + 1);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = toCursor(rows.get(size - 1));
+        }
+        List<TreeNodeTo> page = toNodes(rows);
+        List<TreeNodeTo> level = page;
+        int budget = MAX_NODES - page.size();
+        for (int d = 1; d < depth && budget > 0; d++) {
+            level = loadChildren(level, size, budget);
+            budget -= level.size();
+        }
+        return new TreePageTo(page, nextCursor);
+    }
+
+    /**
+     * Fill children of the level nodes (first page) until {@code budget} nodes are loaded, returns the next level.
+     * Nodes beyond the budget stay lazy, the last filled one may get less than a page (with cursor to the rest).
+     */
+    private List<TreeNodeTo> loadChildren(List<TreeNodeTo> level, int size, int budget) {
+        Map<NodeKind, Map<Long, TreeNodeTo>> parents = new EnumMap<>(NodeKind.class);
+        Map<TreeNodeTo, Integer> limits = new IdentityHashMap<>();
+        for (TreeNodeTo node : level) {
+            if (node.getChildCount() == 0) {
+                node.setChildren(List.of());
+            } else if (budget > 0) {
+                int limit = Math.min(Math.min(node.getChildCount(), size), budget);
+                budget -= limit;
+                limits.put(node, limit);
+                NodeKind kind = NodeKind.parseKind(node.getKey());
+                parents.computeIfAbsent(kind, k -> new LinkedHashMap<>()).put(NodeKind.parseId(node.getKey()), node);
+            }
+        }
+        List<TreeNodeTo> next = new ArrayList<>();
+        parents.forEach((kind, byId) -> {
+            List<Child> kept = new ArrayList<>();
+            List<TreeNodeTo> keptParents = new ArrayList<>();
+            Map<TreeNodeTo, Child> lastKept = new IdentityHashMap<>();
+            for (Child row : repository.findChildren(kind, byId.keySet(), null, size + 1)) {
+                TreeNodeTo parent = byId.get(row.parentId());
+                int limit = limits.get(parent);
+                if (limit > 0) {
+                    limits.put(parent, limit - 1);
+                    kept.add(row);
+                    keptParents.add(parent);
+                    lastKept.put(parent, row);
+                } else if (parent.getCursor() == null) {
+                    parent.setCursor(toCursor(lastKept.get(parent)));
+                }
+            }
+            List<TreeNodeTo> nodes = toNodes(kept);
+            for (int i = 0; i < nodes.size(); i++) {
+                TreeNodeTo parent = keptParents.get(i);
+                if (parent.getChildren() == null) {
+                    parent.setChildren(new ArrayList<>());
+                }
+                parent.getChildren().add(nodes.get(i));
+                next.add(nodes.get(i));
+            }
+        });
+        return next;
+    }
+
+    private List<TreeNodeTo> toNodes(List<Child> rows) {
+        Map<NodeKind, List<Long>> ids = new EnumMap<>(NodeKind.class);
+        rows.forEach(row -> ids.computeIfAbsent(row.kind(), k -> new ArrayList<>()).add(row.id()));
+        Map<NodeKind, Map<Long, Integer>> counts = new EnumMap<>(NodeKind.class);
+        ids.forEach((kind, kindIds) -> counts.put(kind, repository.countChildren(kind, kindIds)));
+        return rows.stream()
+                .map(row -> new TreeNodeTo(row.kind().key(row.id()), row.code(), row.kind().objectType,
+                        row.kind() == NodeKind.BACKLOG ? 0 : row.id(), counts.get(row.kind()).getOrDefault(row.id(), 0)))
+                .toList();
+    }
+
+    private static void check(int value, int max, String name) {
+        if (value < 1 || value > max) {
+            throw new IllegalRequestDataException(name + " must be between 1 and " + max);
+        }
+    }
+
+    @Nullable
+    private static Child parseCursor(@Nullable String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int idx = cursor.indexOf('_');
+        try {
+            return new Child(0, null, Long.parseLong(cursor.substring(idx + 1)), null, Integer.parseInt(cursor.substring(0, idx)));
+        } catch (IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalRequestDataException("Invalid cursor " + cursor);
+        }
+    }
+
+    private static String toCursor(Child last) {
+        return last.rank() + "_" + last.id();
+    }
+}
@@ -44,7 +44,7 @@ public class BaseHandler<E extends HasId, T extends BaseTo, R extends BaseReposi
         return createdResponse(url + "/{id}", created, created.getId());
     }
 
-    public static <T extends HasId> ResponseEntity<T> createdResponse(String url, T created, Object... params) {
+    public static <T> ResponseEntity<T> createdResponse(String url, T created, Object... params) {
         URI uriOfNewResource = ServletUriComponentsBuilder.fromCurrentContextPath()
                 .path(url).buildAndExpand(params).toUri();
         return ResponseEntity.created(uriOfNewResource).body(created);
@@ -25,6 +25,13 @@ public interface BaseRepository<T> extends JpaRepository<T, Long> {
         }
     }
 
+    //  existence check without entity load
+    default void checkExisted(long id) {
+        if (!existsById(id)) {
+            throw new NotFoundException("Entity with id=" + id + " not found");
+        }
+    }
+
     default T getExisted(long id) {
         return Util.checkExist(id, findById(id));
     }
@@ -8,6 +8,7 @@ public enum ErrorType {
     BAD_REQUEST("Bad request", HttpStatus.UNPROCESSABLE_ENTITY),
     DATA_CONFLICT("DB data conflict", HttpStatus.CONFLICT),
     NOT_FOUND("Wrong data in request", HttpStatus.NOT_FOUND),
+    PAYLOAD_TOO_LARGE("Payload too large", HttpStatus.PAYLOAD_TOO_LARGE),
     AUTH_ERROR("Authorization error", HttpStatus.FORBIDDEN),
     UNAUTHORIZED("Request unauthorized", HttpStatus.UNAUTHORIZED),
     FORBIDDEN("Request forbidden", HttpStatus.FORBIDDEN);
@@ -0,0 +1,7 @@
+package com.codegym.jira.common.error;
+
+public class PayloadTooLargeException extends AppException {
+    public PayloadTooLargeException(String msg) {
+        super(msg);
+    }
+}
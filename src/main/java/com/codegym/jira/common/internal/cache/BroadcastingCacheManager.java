@@ -0,0 +1,120 @@
+package com.codegym.jira.common.internal.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spring caches which send their changes to other nodes through {@link CacheBus} (topic {@code cache:<name>}).
+ * Explicit put (@CachePut), evict and clear invalidate the key on other nodes, invalidations from other nodes
+ * go to the local cache directly. Loading on miss must use {@code @Cacheable(sync = true)}: plain @Cacheable
+ * loads with put and would invalidate other nodes on every miss.
+ */
+@RequiredArgsConstructor
+class BroadcastingCacheManager implements CacheManager {
+    static final String TOPIC_PREFIX = "cache:";
+
+    private final CacheManager delegate;
+    private final ObjectProvider<CacheBus> bus;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    //  wraps auto-configured cache manager, bus is resolved on first cache use to keep cache manager creation early
+    static BeanPostProcessor postProcessor(ObjectProvider<CacheBus> bus) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                return bean instanceof CacheManager cacheManager && !(bean instanceof BroadcastingCacheManager) ?
+                        new BroadcastingCacheManager(cacheManager, bus) : bean;
+            }
+        };
+    }
+
+    @Override
+    public Cache getCache(@NonNull String name) {
+        Cache cache = delegate.getCache(name);
+        return cache == null ? null : caches.computeIfAbsent(name, n -> {
+            bus.getObject().subscribe(TOPIC_PREFIX + n, new CacheBus.Subscriber() {
+                @Override
+                public void invalidate(@Nullable Set<String> keys) {
+                    if (keys == null) {
+                        cache.clear();
+                    } else {
+                        keys.forEach(cache::evict);
+                    }
+                }
+
+                @Override
+                public void resync() {
+                    cache.clear();
+                }
+            });
+            return new BroadcastingCache(cache);
+        });
+    }
+
+    @Override
+    @NonNull
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    @RequiredArgsConstructor
+    private class BroadcastingCache implements Cache {
+        private final Cache cache;
+
+        @Override
+        @NonNull
+        public String getName() {
+            return cache.getName();
+        }
+
+        @Override
+        @NonNull
+        public Object getNativeCache() {
+            return cache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(@NonNull Object key) {
+            return cache.get(key);
+        }
+
+        @Override
+        public <T> T get(@NonNull Object key, Class<T> type) {
+            return cache.get(key, type);
+        }
+
+        @Override
+        public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+            return cache.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(@NonNull Object key, Object value) {
+            cache.put(key, value);
+            bus.getObject().publish(TOPIC_PREFIX + getName(), key.toString());
+        }
+
+        @Override
+        public void evict(@NonNull Object key) {
+            cache.evict(key);
+            bus.getObject().publish(TOPIC_PREFIX + getName(), key.toString());
+        }
+
+        @Override
+        public void clear() {
+            cache.clear();
+            bus.getObject().publish(TOPIC_PREFIX + getName(), CacheBus.ALL);
+        }
+    }
+}
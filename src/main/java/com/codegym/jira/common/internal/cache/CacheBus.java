@@ -0,0 +1,187 @@
+package com.codegym.jira.common.internal.cache;
+
+import com.codegym.jira.common.internal.config.AppProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cross-node cache invalidation over PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * {@link #publish} sends {@code NOTIFY} with the current connection: inside a transaction it is delivered on commit only.
+ * Every node listens on a dedicated connection, collects a burst of notifications during {@code app.cache-bus.coalesce},
+ * drops its own ones, dedupes keys by topic and passes them to topic {@link Subscriber}.
+ * After a lost connection it reconnects with backoff and asks all subscribers for full resync,
+ * as notifications sent meanwhile are lost.
+ */
+@Slf4j
+@Component
+public class CacheBus implements SmartLifecycle {
+    static final String CHANNEL = "jira_cache";
+    static final String ALL = "*";
+    //  more keys in a burst - invalidate everything
+    static final int MAX_KEYS = 1000;
+    private static final int POLL_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    public interface Subscriber {
+        /**
+         * @param keys invalidated keys, null for all
+         */
+        void invalidate(@Nullable Set<String> keys);
+
+        void resync();
+    }
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final AppProperties.CacheBusProps props;
+    private volatile boolean running;
+    private Thread listener;
+
+    public CacheBus(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties, AppProperties appProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.props = appProperties.getCacheBus();
+    }
+
+    public void subscribe(String topic, Subscriber subscriber) {
+        subscribers.put(topic, subscriber);
+    }
+
+    /**
+     * Invalidate {@code key} of {@code topic} on other nodes ({@link #ALL} for all keys)
+     */
+    public void publish(String topic, String key) {
+        if (props.isEnabled()) {
+            log.debug("publish {} {}", topic, key);
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> {
+            }, CHANNEL, nodeId + ' ' + topic + ' ' + key);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "cache-bus");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return props.isEnabled();
+    }
+
+    private void listen() {
+        boolean reconnect = false;
+        long backoff = POLL_MILLIS;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("listen to {}", CHANNEL);
+                if (reconnect) {
+                    resync();
+                }
+                reconnect = true;
+                backoff = POLL_MILLIS;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    receive(pgConnection);
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("cache bus connection lost, reconnect in {} ms: {}", backoff, e.getMessage());
+                    try {
+                        Thread.sleep(backoff);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            }
+        }
+    }
+
+    private void receive(PGConnection connection) throws SQLException {
+        PGNotification[] notifications = connection.getNotifications(POLL_MILLIS);
+        if (notifications == null || notifications.length == 0) {
+            return;
+        }
+        Map<String, Set<String>> batch = new HashMap<>();
+        collect(notifications, batch);
+        long deadline = System.currentTimeMillis() + props.getCoalesce().toMillis();
+        for (long wait; (wait = deadline - System.currentTimeMillis()) > 0; ) {
+            notifications = connection.getNotifications((int) wait);
+            if (notifications != null) {
+                collect(notifications, batch);
+            }
+        }
+        batch.forEach(this::dispatch);
+    }
+
+    private void collect(PGNotification[] notifications, Map<String, Set<String>> batch) {
+        for (PGNotification notification : notifications) {
+            String[] parts = notification.getParameter().split(" ", 3);
+            if (parts.length == 3 && !nodeId.equals(parts[0])) {
+                batch.computeIfAbsent(parts[1], topic -> new HashSet<>()).add(parts[2]);
+            }
+        }
+    }
+
+    private void dispatch(String topic, Set<String> keys) {
+        Subscriber subscriber = subscribers.get(topic);
+        if (subscriber != null) {
+            log.debug("invalidate {} {}", topic, keys);
+            try {
+                subscriber.invalidate(keys.contains(ALL) || keys.size() > MAX_KEYS ? null : keys);
+            } catch (RuntimeException e) {
+                log.error("invalidation of " + topic + " failed", e);
+            }
+        }
+    }
+
+    private void resync() {
+        subscribers.forEach((topic, subscriber) -> {
+            log.info("resync {}", topic);
+            try {
+                subscriber.resync();
+            } catch (RuntimeException e) {
+                log.error("resync of " + topic + " failed", e);
+            }
+        });
+    }
+}
@@ -0,0 +1,15 @@
+package com.codegym.jira.common.internal.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+class CacheBusConfig {
+
+    @Bean
+    static BeanPostProcessor broadcastingCacheManagerPostProcessor(ObjectProvider<CacheBus> bus) {
+        return BroadcastingCacheManager.postProcessor(bus);
+    }
+}
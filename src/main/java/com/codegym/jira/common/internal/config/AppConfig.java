@@ -5,6 +5,9 @@ import com.fasterxml.jackson.annotation.JsonAnyGetter;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.hibernate5.jakarta.Hibernate5JakartaModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,12 +16,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.http.ProblemDetail;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.ANY;
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
@@ -33,13 +38,46 @@ public class AppConfig {
     private final AppProperties appProperties;
     private final Environment env;
 
+    //  bounded queue: grows the pool up to max size, then back-pressure by running tasks in the submitting thread
+    //  with virtual threads every task gets its own thread, but the same limits apply
     @Bean("mailExecutor")
-    Executor getAsyncExecutor() {
-        return new ThreadPoolTaskExecutor() {
+    Executor getAsyncExecutor(MeterRegistry meterRegistry) {
+        Counter callerRuns = meterRegistry.counter("mail.executor.rejected");
+        if (appProperties.isVirtualThreads()) {
+            BoundedExecutor executor = new BoundedExecutor(VirtualThreads.newExecutor("mail-"), appProperties.getMailSendingProps().maxPoolSize,
+                    appProperties.getMailSendingProps().queueCapacity, callerRuns::increment);
+            Gauge.builder("mail.executor.queue", executor, BoundedExecutor::getQueueSize).register(meterRegistry);
+            return new TaskExecutorAdapter(executor);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
             {
                 setCorePoolSize(appProperties.getMailSendingProps().corePoolSize);
                 setMaxPoolSize(appProperties.getMailSendingProps().maxPoolSize);
+                setQueueCapacity(appProperties.getMailSendingProps().queueCapacity);
                 setThreadNamePrefix("mail-");
+                setRejectedExecutionHandler((task, pool) -> {
+                    callerRuns.increment();
+                    new ThreadPoolExecutor.CallerRunsPolicy().rejectedExecution(task, pool);
+                });
+            }
+        };
+        Gauge.builder("mail.executor.queue", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .register(meterRegistry);
+        return executor;
+    }
+
+    //  mail outbox workers, limited by dispatcher (no queue)
+    @Bean("mailDispatchExecutor")
+    Executor getMailDispatchExecutor() {
+        if (appProperties.isVirtualThreads()) {
+            return new TaskExecutorAdapter(VirtualThreads.newExecutor("mail-dispatch-"));
+        }
+        return new ThreadPoolTaskExecutor() {
+            {
+                setCorePoolSize(appProperties.getMailOutbox().getWorkers());
+                setMaxPoolSize(appProperties.getMailOutbox().getWorkers());
+                setQueueCapacity(0);
+                setThreadNamePrefix("mail-dispatch-");
             }
         };
     }
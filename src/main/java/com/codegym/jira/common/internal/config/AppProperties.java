@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.lang.NonNull;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 
 import java.time.Duration;
@@ -35,10 +36,156 @@ public class AppProperties {
     @NonNull
     private MailSendingProps mailSendingProps;
 
+    /**
+     * Run request handling and mail executors on virtual threads (Java 21+, build with -Pvirtual-threads)
+     */
+    private boolean virtualThreads;
+
+    @NonNull
+    private CacheBusProps cacheBus = new CacheBusProps();
+
+    @NonNull
+    private MailOutboxProps mailOutbox = new MailOutboxProps();
+
+    @NonNull
+    private MailDigestProps mailDigest = new MailDigestProps();
+
+    @NonNull
+    private AttachmentMigrationProps attachmentMigration = new AttachmentMigrationProps();
+
+    @NonNull
+    private AttachmentQuotaProps attachmentQuota = new AttachmentQuotaProps();
+
     //    https://stackoverflow.com/a/29588215/548473
     @Setter
     public static class MailSendingProps {
         int corePoolSize;
         int maxPoolSize;
+        /**
+         * Tasks over pool size wait in the queue, over queue capacity are run by the submitting thread
+         */
+        int queueCapacity = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class CacheBusProps {
+        /**
+         * Listen to cache invalidations of other nodes
+         */
+        boolean enabled = true;
+
+        /**
+         * Window to collect a burst of invalidations into one
+         */
+        Duration coalesce = Duration.ofMillis(50);
+    }
+
+    @Getter
+    @Setter
+    public static class MailOutboxProps {
+        /**
+         * Send mails from outbox on this node
+         */
+        boolean dispatch = true;
+
+        /**
+         * Outbox check interval, new mails are dispatched right after commit
+         */
+        Duration pollInterval = Duration.ofSeconds(5);
+
+        /**
+         * Max dispatcher workers (each sends its batch over one SMTP connection)
+         */
+        int workers = 2;
+
+        /**
+         * Mails claimed and sent over one SMTP connection
+         */
+        int batchSize = 50;
+
+        /**
+         * Attempts before mail goes to MAIL_CASE
+         */
+        int maxAttempts = 5;
+
+        /**
+         * Delay after first failure, doubled on every next one
+         */
+        Duration initialBackoff = Duration.ofSeconds(30);
+
+        Duration maxBackoff = Duration.ofHours(1);
+
+        /**
+         * Claimed mails are invisible to other workers for this time (retried if worker dies)
+         */
+        Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Mails per second sent to SMTP relay by the node, 0 for no limit
+         */
+        double rateLimit;
+
+        /**
+         * Mails sent at once before rate limit applies
+         */
+        int rateBurst = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class MailDigestProps {
+        /**
+         * Send digests from this node
+         */
+        boolean flush = true;
+
+        /**
+         * Task events of a user are collected into one digest during this time since the first of them
+         */
+        Duration window = Duration.ofMinutes(10);
+
+        /**
+         * Check for digests with expired window
+         */
+        Duration flushInterval = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class AttachmentMigrationProps {
+        /**
+         * Move attachment files of old flat layout from this node
+         */
+        boolean enabled = true;
+
+        /**
+         * Attachments moved at once
+         */
+        int batchSize = 100;
+
+        /**
+         * Pause between batches, throttles disk load
+         */
+        Duration interval = Duration.ofSeconds(1);
+    }
+
+    @Getter
+    @Setter
+    public static class AttachmentQuotaProps {
+        /**
+         * Max content size of an attachment
+         */
+        DataSize maxFileSize = DataSize.ofMegabytes(100);
+
+        /**
+         * Max content size of all attachments uploaded by a user
+         */
+        DataSize userQuota = DataSize.ofGigabytes(1);
+
+        /**
+         * Max content size of all attachments of a project, its sprints and tasks
+         */
+        DataSize projectQuota = DataSize.ofGigabytes(10);
     }
 }
@@ -0,0 +1,62 @@
+package com.codegym.jira.common.internal.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits of a bounded thread pool over thread-per-task (virtual) executor: at most {@code maxRunning} tasks run,
+ * up to {@code queueCapacity} more wait blocked in their own threads, others run in the submitting thread (caller-runs).
+ */
+class BoundedExecutor implements Executor {
+    private final Executor executor;
+    private final Semaphore running;
+    private final Semaphore admitted;
+    private final int maxRunning;
+    private final int maxAdmitted;
+    private final Runnable onCallerRuns;
+
+    BoundedExecutor(Executor executor, int maxRunning, int queueCapacity, Runnable onCallerRuns) {
+        this.executor = executor;
+        this.running = new Semaphore(maxRunning);
+        this.maxRunning = maxRunning;
+        this.maxAdmitted = maxRunning + queueCapacity;
+        this.admitted = new Semaphore(maxAdmitted);
+        this.onCallerRuns = onCallerRuns;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            onCallerRuns.run();
+            task.run();
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    running.acquire();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    //  admitted tasks waiting for a running slot
+    int getQueueSize() {
+        int admittedTasks = maxAdmitted - admitted.availablePermits();
+        int runningTasks = maxRunning - running.availablePermits();
+        return Math.max(0, admittedTasks - runningTasks);
+    }
+}
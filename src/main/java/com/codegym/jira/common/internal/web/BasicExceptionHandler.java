@@ -34,6 +34,7 @@ public class BasicExceptionHandler {
             put(NoHandlerFoundException.class, ErrorType.NOT_FOUND);
             put(DataConflictException.class, ErrorType.DATA_CONFLICT);
             put(IllegalRequestDataException.class, ErrorType.BAD_REQUEST);
+            put(PayloadTooLargeException.class, ErrorType.PAYLOAD_TOO_LARGE);
             put(AppException.class, ErrorType.APP_ERROR);
             put(EntityNotFoundException.class, ErrorType.DATA_CONFLICT);
             put(DataIntegrityViolationException.class, ErrorType.DATA_CONFLICT);
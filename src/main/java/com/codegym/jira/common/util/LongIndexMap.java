@@ -0,0 +1,49 @@
+package com.codegym.jira.common.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing {@code long → int} map without boxing, for id → position lookups when assembling trees.
+ * Insert-only, fixed capacity.
+ */
+final class LongIndexMap {
+    private static final int NOT_FOUND = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    LongIndexMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        Arrays.fill(values, NOT_FOUND);
+    }
+
+    void put(long key, int value) {
+        int slot = slot(key);
+        while (values[slot] != NOT_FOUND && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    //  -1 if absent
+    int get(long key) {
+        int slot = slot(key);
+        while (values[slot] != NOT_FOUND) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
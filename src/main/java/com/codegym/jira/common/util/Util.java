@@ -46,24 +46,29 @@ public class Util {
         return result;
     }
 
+    //  roots and children keep input order; nodes with parent absent in the list become roots after real roots
     public static <T extends HasIdAndParentId, R extends ITreeNode<T, R>> List<R> makeTree(List<T> nodes, Function<T, R> treeNodeCreator) {
+        int size = nodes.size();
         List<R> roots = new ArrayList<>();
-        Map<Long, R> map = new HashMap<>();
-        for (T node : nodes) {
+        List<R> treeNodes = new ArrayList<>(size);
+        LongIndexMap positions = new LongIndexMap(size);
+        for (int i = 0; i < size; i++) {
+            T node = nodes.get(i);
             R treeNode = treeNodeCreator.apply(node);
-            map.put(node.id(), treeNode);
+            treeNodes.add(treeNode);
+            positions.put(node.id(), i);
             if (node.getParentId() == null) {
                 roots.add(treeNode);
             }
         }
-        for (T node : nodes) {
-            if (node.getParentId() != null) {
-                R parent = map.get(node.getParentId());
-                R current = map.get(node.id());
-                if (parent != null) {
-                    parent.subNodes().add(current);
+        for (int i = 0; i < size; i++) {
+            Long parentId = nodes.get(i).getParentId();
+            if (parentId != null) {
+                int parent = positions.get(parentId);
+                if (parent >= 0) {
+                    treeNodes.get(parent).subNodes().add(treeNodes.get(i));
                 } else {
-                    roots.add(current);
+                    roots.add(treeNodes.get(i));
                 }
             }
         }
@@ -15,7 +15,8 @@ import java.util.Optional;
 @CacheConfig(cacheNames = "users")
 public interface UserRepository extends BaseRepository<User> {
 
-    @Cacheable(key = "#email")
+    //  sync: load on miss doesn't put (put is broadcast to other nodes as invalidation)
+    @Cacheable(key = "#email", sync = true)
     @Query("SELECT u FROM User u WHERE u.email = LOWER(:email)")
     Optional<User> findByEmailIgnoreCase(String email);
 
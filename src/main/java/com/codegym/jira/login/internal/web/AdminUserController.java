@@ -32,7 +32,7 @@ public class AdminUserController extends AbstractUserController {
 
     @DeleteMapping(PATH_ID)
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    // getByEmail with return old user until expired
+    @CacheEvict(value = "users", allEntries = true)
     public void delete(@PathVariable long id) {
         handler.delete(id);
     }
@@ -50,8 +50,8 @@ public class AdminUserController extends AbstractUserController {
 
     @PutMapping(value = PATH_ID, consumes = MediaType.APPLICATION_JSON_VALUE)
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    @CacheEvict(value = "users", key = "#user.email")
-    // In case of update email, getByEmail with old email return old user until expired
+    //  email could be changed, old email key is unknown here
+    @CacheEvict(value = "users", allEntries = true)
     @JsonView(View.OnUpdate.class)
     public void update(@Validated(View.OnUpdate.class) @RequestBody User user, @PathVariable long id) {
         handler.update(user, id);
@@ -64,7 +64,7 @@ public class AdminUserController extends AbstractUserController {
 
     @PatchMapping(PATH_ID)
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    // getByEmail with return old user until expired
+    @CacheEvict(value = "users", allEntries = true)
     public void enable(@PathVariable long id, @RequestParam boolean enabled) {
         handler.enable(id, enabled);
     }
@@ -6,21 +6,19 @@ import com.codegym.jira.common.util.Util;
 import com.codegym.jira.login.User;
 import com.codegym.jira.mail.internal.MailCase;
 import com.codegym.jira.mail.internal.MailCaseRepository;
+import com.codegym.jira.mail.internal.MailDispatcher;
+import com.codegym.jira.mail.internal.MailOutboxRepository;
+import com.codegym.jira.mail.internal.MailRenderer;
+import com.codegym.jira.mail.internal.RenderedMail;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeMessage;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -34,12 +32,13 @@ import java.util.concurrent.*;
 @Service
 @RequiredArgsConstructor
 public class MailService {
-    private static final Locale LOCALE_EN = Locale.forLanguageTag("en");
     private static final String OK = "OK";
 
     private final MailCaseRepository mailCaseRepository;
-    private final JavaMailSender javaMailSender;
-    private final SpringTemplateEngine templateEngine;
+    private final MailOutboxRepository outboxRepository;
+    private final MailDispatcher mailDispatcher;
+    private final MailRenderer mailRenderer;
+    private final MeterRegistry meterRegistry;
 
     private final AppConfig appConfig;
     private final AppProperties appProperties;
@@ -48,55 +47,83 @@ public class MailService {
     @Qualifier("mailExecutor")
     private final Executor mailExecutor;
 
-    @Value("${spring.mail.username}")
-    private String email;
-
     public static boolean isOk(String result) {
         return OK.equals(result);
     }
 
     public String sendToUserWithParams(@NonNull String template, @NonNull User user, @NonNull Map<String, Object> params) {
+        return sendToUser(template, user, params, false);
+    }
+
+    //  notifications that may wait: queued with bulk priority, after confirmation and password reset mails
+    public String sendBulkToUserWithParams(@NonNull String template, @NonNull User user, @NonNull Map<String, Object> params) {
+        return sendToUser(template, user, params, true);
+    }
+
+    private String sendToUser(String template, User user, Map<String, Object> params, boolean bulk) {
+        return send(getToEmail(user), user.getFirstName(), template, getUserParams(user, params), bulk);
+    }
+
+    private String getToEmail(User user) {
         String email = Objects.requireNonNull(user.getEmail());
-        Map<String, Object> extParams = Util.mergeMap(params, Map.of("user", user));
-        return send(appConfig.isProd() ? email : appProperties.getTestMail(), user.getFirstName(), template, extParams);
+        return appConfig.isProd() ? email : appProperties.getTestMail();
+    }
+
+    private static Map<String, Object> getUserParams(User user, Map<String, Object> params) {
+        return Util.mergeMap(params, Map.of("user", user));
     }
 
+    /**
+     * Render mail and put it to outbox in the caller transaction, it is sent by {@link MailDispatcher} after commit
+     */
     public String send(String toEmail, String toName, String template, Map<String, Object> params) {
-        log.debug("Send email to {}, {} with template {}", toEmail, toName, template);
-        String result = OK;
+        return send(toEmail, toName, template, params, false);
+    }
+
+    //  bulk mails are sent after single ones
+    private String send(String toEmail, String toName, String template, Map<String, Object> params, boolean bulk) {
+        log.debug("Queue email to {}, {} with template {}", toEmail, toName, template);
+        String content;
+        String subject;
         try {
-            MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-            MimeMessageHelper message = new MimeMessageHelper(mimeMessage, "UTF-8");
-            message.setFrom(email, "CodegymJira");
-            String content = getContent(template, params);
-            message.setText(content, true);
-            message.setSubject(Util.getTitle(content));  // TODO calculate title for group emailing only once
-            message.setTo(new InternetAddress(toEmail, toName, "UTF-8"));
-            if (!appConfig.isTest()) {
-                javaMailSender.send(mimeMessage);
-            }
+            content = mailRenderer.getContent(template, params);
+            subject = mailRenderer.getSubject(template, params);
         } catch (Exception e) {
-            result = e.getMessage();
-            log.error("Sending to {} failed: \n{}", toEmail, result);
+            String result = e.getMessage();
+            log.error("Rendering for {} failed: \n{}", toEmail, result);
             mailCaseRepository.save(new MailCase(toEmail, toName, template, result));
+            return result;
         }
-        return result;
+        outboxRepository.add(toEmail, toName, template, subject, content, bulk);
+        mailDispatcher.wakeUpAfterCommit();
+        return OK;
     }
 
-    private String getContent(String template, Map<String, Object> params) {
-        Context context = new Context(LOCALE_EN, params);
-        return templateEngine.process(template, context);
+    /**
+     * Render group mails in {@code mailExecutor} (concurrent group sends share it) and put them to outbox
+     * in the caller thread and transaction, only delivery by {@link MailDispatcher} is asynchronous.
+     * Subject is rendered once for the group, so it must not depend on recipient.
+     */
+    public GroupResult sendToGroup(@NonNull String template, @NonNull Set<User> users, Map<String, Object> params) {
+        return meterRegistry.timer("mail.group.send").record(() -> doSendToGroup(template, users, params));
     }
 
-    public synchronized GroupResult sendToGroup(@NonNull String template, @NonNull Set<User> users, Map<String, Object> params) {
+    private GroupResult doSendToGroup(String template, Set<User> users, Map<String, Object> params) {
         if (users.isEmpty()) {
             return new GroupResult(0, Collections.emptyList(), null);
         }
-        CompletionService<String> completionService = new ExecutorCompletionService<>(mailExecutor);
-        Map<Future<String>, String> resultMap = new HashMap<>();
+        String subject;
+        try {
+            subject = mailRenderer.getSubject(template, params);
+        } catch (Exception e) {
+            log.error("Subject rendering of {} failed: \n{}", template, e.getMessage());
+            return new GroupResult(0, Collections.emptyList(), "+++ Subject rendering failed: " + e.getMessage());
+        }
+        CompletionService<Rendered> completionService = new ExecutorCompletionService<>(mailExecutor);
+        Map<Future<Rendered>, String> resultMap = new HashMap<>();
         users.forEach(
                 user -> {
-                    Future<String> future = completionService.submit(() -> sendToUserWithParams(template, user, params));
+                    Future<Rendered> future = completionService.submit(() -> render(template, user, params));
                     resultMap.put(future, user.getEmail());
                 }
         );
@@ -104,7 +131,7 @@ public class MailService {
         GroupResultBuilder groupResultBuilder = new GroupResultBuilder();
         try {
             while (!resultMap.isEmpty()) {
-                Future<String> future = completionService.poll(10, TimeUnit.SECONDS);
+                Future<Rendered> future = completionService.poll(10, TimeUnit.SECONDS);
                 if (future == null) {
                     cancelAll(resultMap);
                     return groupResultBuilder.buildWithFailure("+++ Interrupted by timeout");
@@ -117,17 +144,35 @@ public class MailService {
                 }
             }
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             return groupResultBuilder.buildWithFailure("+++ Interrupted");
+        } finally {
+            queue(template, subject, groupResultBuilder);
         }
         return groupResultBuilder.buildOK();
     }
 
-    @Async("mailExecutor")
-    public void sendToUserAsync(@NonNull String template, @NonNull User user, Map<String, Object> params) {
-        sendToUserWithParams(template, user, params);
+    //  runs in mailExecutor: no database access, results are saved by the caller
+    private Rendered render(String template, User user, Map<String, Object> params) {
+        String toEmail = getToEmail(user);
+        try {
+            return new Rendered(new RenderedMail(toEmail, user.getFirstName(), mailRenderer.getContent(template, getUserParams(user, params))), null);
+        } catch (Exception e) {
+            log.error("Rendering for {} failed: \n{}", toEmail, e.getMessage());
+            return new Rendered(new RenderedMail(toEmail, user.getFirstName(), null), e.getMessage());
+        }
     }
 
-    private void cancelAll(Map<Future<String>, String> resultMap) {
+    private void queue(String template, String subject, GroupResultBuilder groupResultBuilder) {
+        groupResultBuilder.renderFailed.forEach(rendered -> mailCaseRepository.save(
+                new MailCase(rendered.mail().email(), rendered.mail().name(), template, rendered.error())));
+        if (!groupResultBuilder.rendered.isEmpty()) {
+            outboxRepository.addBulk(template, subject, groupResultBuilder.rendered);
+            mailDispatcher.wakeUpAfterCommit();
+        }
+    }
+
+    private void cancelAll(Map<Future<Rendered>, String> resultMap) {
         log.warn("Cancel all un-sent emails");
         resultMap.forEach((future, email) -> {
             log.warn("Sending to " + email + " failed");
@@ -151,8 +196,14 @@ public class MailService {
         }
     }
 
+    //  error is null for successfully rendered mail
+    private record Rendered(RenderedMail mail, @Nullable String error) {
+    }
+
     private static class GroupResultBuilder {
         private final List<MailResult> failed = new ArrayList<>();
+        private final List<RenderedMail> rendered = new ArrayList<>();
+        private final List<Rendered> renderFailed = new ArrayList<>();
         private int success = 0;
         private String failedCause = null;
 
@@ -164,13 +215,15 @@ public class MailService {
             return new GroupResult(success, failed, cause);
         }
 
-        private boolean accept(String email, Future<String> future) {
+        private boolean accept(String email, Future<Rendered> future) {
             try {
-                String result = future.get();
-                if (isOk(result)) {
+                Rendered result = future.get();
+                if (result.error() == null) {
+                    rendered.add(result.mail());
                     success++;
                 } else {
-                    failed.add(new MailResult(email, result));
+                    renderFailed.add(result);
+                    failed.add(new MailResult(email, result.error()));
                 }
             } catch (InterruptedException e) {
                 failedCause = "Task interrupted";
@@ -0,0 +1,20 @@
+package com.codegym.jira.mail.internal;
+
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+import java.time.LocalDateTime;
+
+//  task event in a digest mail
+@Value
+public class DigestItem {
+    long taskId;
+    String taskTitle;
+    String kind;
+    String value;
+    String author;
+    //  assigned user of ASSIGNED event
+    @Nullable
+    String assignee;
+    LocalDateTime created;
+}
@@ -0,0 +1,70 @@
+package com.codegym.jira.mail.internal;
+
+import com.codegym.jira.bugtracking.task.TaskNotificationEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pending task events of digest mails, a row per recipient and event
+ */
+@Repository
+@RequiredArgsConstructor
+class DigestRepository {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * @param recipients task id → users to notify
+     */
+    void add(TaskNotificationEvent event, Map<Long, long[]> recipients) {
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        recipients.forEach((taskId, userIds) -> {
+            for (long userId : userIds) {
+                rows.add(new MapSqlParameterSource("userId", userId)
+                        .addValue("taskId", taskId)
+                        .addValue("kind", event.kind().getCode())
+                        .addValue("authorId", event.authorId())
+                        .addValue("value", event.value())
+                        .addValue("assigneeId", event.assigneeId()));
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("""
+                            INSERT INTO mail_digest_event (user_id, task_id, kind, author_id, value, assignee_id)
+                            VALUES (:userId, :taskId, :kind, :authorId, :value, :assigneeId)""",
+                    rows.toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    //  users whose first pending event is older than window, longest waiting first
+    List<Long> findDueUsers(Duration window, int limit) {
+        return jdbcTemplate.queryForList("""
+                        SELECT user_id FROM mail_digest_event GROUP BY user_id
+                        HAVING min(created) <= now() - :window * interval '1 millisecond'
+                        ORDER BY min(created) LIMIT :limit""",
+                new MapSqlParameterSource("window", window.toMillis()).addValue("limit", limit), Long.class);
+    }
+
+    //  remove pending events of the user and return them, rows taken by a concurrent flush are skipped
+    List<DigestItem> take(long userId) {
+        return jdbcTemplate.query("""
+                        WITH d AS (DELETE FROM mail_digest_event WHERE id IN
+                                       (SELECT id FROM mail_digest_event WHERE user_id = :userId FOR UPDATE SKIP LOCKED)
+                                   RETURNING *)
+                        SELECT d.task_id, t.title, d.kind, d.value, u.display_name AS author, a.display_name AS assignee, d.created
+                        FROM d JOIN task t ON t.id = d.task_id JOIN users u ON u.id = d.author_id
+                        LEFT JOIN users a ON a.id = d.assignee_id
+                        ORDER BY d.created, d.id""",
+                new MapSqlParameterSource("userId", userId),
+                (rs, rowNum) -> new DigestItem(rs.getLong("task_id"), rs.getString("title"), rs.getString("kind"),
+                        rs.getString("value"), rs.getString("author"), rs.getString("assignee"),
+                        rs.getObject("created", LocalDateTime.class)));
+    }
+}
@@ -0,0 +1,218 @@
+package com.codegym.jira.mail.internal;
+
+import com.codegym.jira.common.internal.config.AppProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends mails of {@link MailOutboxRepository}.
+ * <p>
+ * A worker claims due mails by batches and sends every batch over one SMTP connection.
+ * Workers run on {@code mailDispatchExecutor}: one is started by schedule and after commit of new mails,
+ * every full batch starts one more, up to {@code app.mail-outbox.workers} on the node.
+ * Nodes share the outbox, claimed rows are skipped by other workers.
+ * Sending to the SMTP relay is limited by {@code app.mail-outbox.rate-limit} mails per second, shared by the node workers.
+ * Failed mails are retried with exponential backoff, after {@code app.mail-outbox.max-attempts} they go to {@link MailCase}.
+ * Delivery is at-least-once: a mail sent by a worker which died before completion is sent again after lease expiration.
+ */
+@Slf4j
+@Component
+public class MailDispatcher implements SchedulingConfigurer {
+    private static final String SENDER_NAME = "CodegymJira";
+
+    private final MailOutboxRepository outboxRepository;
+    private final JavaMailSender javaMailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+    private final Executor mailDispatchExecutor;
+    @Nullable
+    private final TokenBucket rateLimiter;
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    private final AtomicInteger workers = new AtomicInteger();
+
+    @Value("${spring.mail.username}")
+    private String email;
+
+    public MailDispatcher(MailOutboxRepository outboxRepository, JavaMailSender javaMailSender, TransactionTemplate transactionTemplate,
+                          AppProperties appProperties, @Qualifier("mailDispatchExecutor") Executor mailDispatchExecutor,
+                          MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.transactionTemplate = transactionTemplate;
+        this.appProperties = appProperties;
+        this.mailDispatchExecutor = mailDispatchExecutor;
+        AppProperties.MailOutboxProps props = appProperties.getMailOutbox();
+        this.rateLimiter = props.getRateLimit() > 0 ? new TokenBucket(props.getRateLimit(), props.getRateBurst()) : null;
+        this.sendTimer = meterRegistry.timer("mail.send");
+        this.sentCounter = meterRegistry.counter("mail.sent");
+        this.failedCounter = meterRegistry.counter("mail.failed");
+    }
+
+    @Override
+    public void configureTasks(@NonNull ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::wakeUp, appProperties.getMailOutbox().getPollInterval());
+    }
+
+    //  dispatch new mails as soon as they are committed
+    public void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    //  start a worker if the limit allows
+    public void wakeUp() {
+        AppProperties.MailOutboxProps props = appProperties.getMailOutbox();
+        if (!props.isDispatch()) {
+            return;
+        }
+        for (int count; (count = workers.get()) < props.getWorkers(); ) {
+            if (workers.compareAndSet(count, count + 1)) {
+                try {
+                    mailDispatchExecutor.execute(this::work);
+                } catch (RejectedExecutionException e) {
+                    //  previous worker thread is not released yet, next schedule will start it
+                    workers.decrementAndGet();
+                    log.debug("Mail worker rejected: {}", e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            log.error("Mail dispatching failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.decrementAndGet();
+        }
+    }
+
+    //  send due mails until the outbox is drained
+    void dispatch() throws InterruptedException {
+        AppProperties.MailOutboxProps props = appProperties.getMailOutbox();
+        List<OutboxMail> batch;
+        do {
+            batch = outboxRepository.claim(props.getBatchSize(), props.getLease());
+            if (batch.size() == props.getBatchSize()) {
+                wakeUp();
+            }
+            if (!batch.isEmpty()) {
+                send(batch, props);
+            }
+        } while (batch.size() == props.getBatchSize());
+    }
+
+    private void send(List<OutboxMail> batch, AppProperties.MailOutboxProps props) throws InterruptedException {
+        log.debug("Send {} emails", batch.size());
+        Map<MimeMessage, OutboxMail> messages = new LinkedHashMap<>();
+        Map<OutboxMail, String> failures = new LinkedHashMap<>();
+        for (OutboxMail mail : batch) {
+            try {
+                messages.put(createMessage(mail), mail);
+            } catch (MessagingException | UnsupportedEncodingException e) {
+                failures.put(mail, getError(e));
+            }
+        }
+        if (!messages.isEmpty()) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire(messages.size());
+            }
+            long start = System.nanoTime();
+            try {
+                //  JavaMailSenderImpl sends all messages over one Transport connection
+                javaMailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+            } catch (MailSendException e) {
+                if (e.getFailedMessages().isEmpty()) {
+                    messages.values().forEach(mail -> failures.put(mail, getError(e)));
+                } else {
+                    e.getFailedMessages().forEach((message, ex) -> failures.put(messages.get(message), getError(ex)));
+                }
+            } catch (MailException e) {
+                messages.values().forEach(mail -> failures.put(mail, getError(e)));
+            }
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        List<Long> sentIds = batch.stream().filter(mail -> !failures.containsKey(mail)).map(OutboxMail::id).toList();
+        sentCounter.increment(sentIds.size());
+        failedCounter.increment(failures.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxRepository.delete(sentIds);
+            }
+            failures.forEach((mail, error) -> {
+                if (mail.attempts() + 1 >= props.getMaxAttempts()) {
+                    log.error("Sending to {} failed {} times, give up: \n{}", mail.email(), mail.attempts() + 1, error);
+                    outboxRepository.deadLetter(mail, error);
+                } else {
+                    Duration delay = getBackoff(mail.attempts(), props);
+                    log.warn("Sending to {} failed, retry in {}: \n{}", mail.email(), delay, error);
+                    outboxRepository.retry(mail, error, delay);
+                }
+            });
+        });
+    }
+
+    private MimeMessage createMessage(OutboxMail mail) throws MessagingException, UnsupportedEncodingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, "UTF-8");
+        message.setFrom(email, SENDER_NAME);
+        message.setText(mail.content(), true);
+        message.setSubject(mail.subject());
+        message.setTo(new InternetAddress(mail.email(), mail.name(), "UTF-8"));
+        return mimeMessage;
+    }
+
+    static Duration getBackoff(int attempts, AppProperties.MailOutboxProps props) {
+        Duration delay = props.getInitialBackoff().multipliedBy(1L << Math.min(attempts, 30));
+        return delay.compareTo(props.getMaxBackoff()) > 0 ? props.getMaxBackoff() : delay;
+    }
+
+    private static String getError(Exception e) {
+        return Objects.requireNonNullElse(e.getMessage(), e.toString());
+    }
+}
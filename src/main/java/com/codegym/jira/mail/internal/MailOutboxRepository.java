@@ -0,0 +1,78 @@
+package com.codegym.jira.mail.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent queue of rendered mails. Mails are added with the caller connection, so in a transaction
+ * they become visible to {@link MailDispatcher} only after commit and are lost on rollback together with business changes.
+ * Single mails (confirmation, password reset) are claimed before bulk group and digest mails.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MailOutboxRepository {
+    private static final int MAX_ERROR_LENGTH = 1024;
+    private static final int MAX_RESULT_LENGTH = 255;
+    private static final int PRIORITY_SINGLE = 0;
+    private static final int PRIORITY_BULK = 1;
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT = "INSERT INTO mail_outbox (email, name, template, subject, content, priority) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final RowMapper<OutboxMail> MAPPER = (rs, rowNum) -> new OutboxMail(rs.getLong("id"),
+            rs.getString("email"), rs.getString("name"), rs.getString("template"),
+            rs.getString("subject"), rs.getString("content"), rs.getInt("attempts"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void add(String email, String name, String template, String subject, String content, boolean bulk) {
+        jdbcTemplate.update(INSERT, email, name, template, subject, content, bulk ? PRIORITY_BULK : PRIORITY_SINGLE);
+    }
+
+    //  group mails with the same template and subject
+    public void addBulk(String template, String subject, Collection<RenderedMail> mails) {
+        jdbcTemplate.batchUpdate(INSERT, mails, BATCH_SIZE, (ps, mail) -> {
+            ps.setString(1, mail.email());
+            ps.setString(2, mail.name());
+            ps.setString(3, template);
+            ps.setString(4, subject);
+            ps.setString(5, mail.content());
+            ps.setInt(6, PRIORITY_BULK);
+        });
+    }
+
+    /**
+     * Claim due mails: rows locked by other workers are skipped, claimed ones are moved forward by {@code lease},
+     * so a mail of a dead worker is claimed again after lease expiration.
+     */
+    List<OutboxMail> claim(int batchSize, Duration lease) {
+        return jdbcTemplate.query("UPDATE mail_outbox o SET next_attempt = now() + ? * interval '1 millisecond' " +
+                "FROM (SELECT id FROM mail_outbox WHERE next_attempt <= now() ORDER BY priority, next_attempt, id LIMIT ? FOR UPDATE SKIP LOCKED) c " +
+                "WHERE o.id = c.id RETURNING o.*", MAPPER, lease.toMillis(), batchSize);
+    }
+
+    void delete(Collection<Long> ids) {
+        jdbcTemplate.batchUpdate("DELETE FROM mail_outbox WHERE id = ?", ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    void retry(OutboxMail mail, String error, Duration delay) {
+        jdbcTemplate.update("UPDATE mail_outbox SET attempts = attempts + 1, next_attempt = now() + ? * interval '1 millisecond', " +
+                "last_error = ? WHERE id = ?", delay.toMillis(), truncate(error, MAX_ERROR_LENGTH), mail.id());
+    }
+
+    //  move to MAIL_CASE
+    void deadLetter(OutboxMail mail, String error) {
+        jdbcTemplate.update("INSERT INTO mail_case (email, name, template, result, date_time) VALUES (?, ?, ?, ?, now())",
+                mail.email(), mail.name(), mail.template(), truncate(error, MAX_RESULT_LENGTH));
+        jdbcTemplate.update("DELETE FROM mail_outbox WHERE id = ?", mail.id());
+    }
+
+    private static String truncate(String str, int length) {
+        return str.length() > length ? str.substring(0, length) : str;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codegym.jira.mail.internal;
+
+import com.codegym.jira.common.util.Util;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Mail templates rendering. Templates are parsed once and cached by the template engine (see {@code ThymeleafConfig}),
+ * rendering only evaluates expressions with the given parameters.
+ * Subject is the template {@code <title>}: it is rendered alone by markup selector
+ * instead of parsing it back from the whole rendered mail.
+ */
+@Component
+@RequiredArgsConstructor
+public class MailRenderer {
+    private static final Locale LOCALE_EN = Locale.forLanguageTag("en");
+    private static final Set<String> TITLE_SELECTOR = Set.of("title");
+
+    private final SpringTemplateEngine templateEngine;
+
+    public String getContent(String template, Map<String, Object> params) {
+        return templateEngine.process(template, new Context(LOCALE_EN, params));
+    }
+
+    public String getSubject(String template, Map<String, Object> params) {
+        return Util.getTitle(templateEngine.process(template, TITLE_SELECTOR, new Context(LOCALE_EN, params)));
+    }
+}
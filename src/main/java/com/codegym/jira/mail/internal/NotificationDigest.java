@@ -0,0 +1,96 @@
+package com.codegym.jira.mail.internal;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.bugtracking.task.TaskNotificationEvent;
+import com.codegym.jira.common.internal.config.AppProperties;
+import com.codegym.jira.login.internal.UserRepository;
+import com.codegym.jira.mail.MailService;
+import com.codegym.jira.profile.internal.NotificationRecipients;
+import com.codegym.jira.ref.RefType;
+import com.codegym.jira.ref.ReferenceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Task notifications as digests: task events are stored per recipient in the changing transaction,
+ * all events of a user within {@code app.mail-digest.window} since the first of them go into one mail.
+ * Recipients are resolved by {@link NotificationRecipients} when the event is stored
+ * and checked again when the digest is sent, as notification settings may change meanwhile.
+ * Every digest is taken and queued to mail outbox in one transaction, concurrent flushes on other nodes skip it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationDigest implements SchedulingConfigurer {
+    static final String TEMPLATE = "task-digest.html";
+    private static final int MAX_USERS = 500;
+
+    private final DigestRepository digestRepository;
+    private final NotificationRecipients notificationRecipients;
+    private final UserRepository userRepository;
+    private final MailService mailService;
+    private final TransactionTemplate transactionTemplate;
+    private final AppProperties appProperties;
+
+    @EventListener
+    public void onTaskChange(TaskNotificationEvent event) {
+        long mask = getMask(event.kind().getCode());
+        digestRepository.add(event, notificationRecipients.find(ObjectType.TASK, event.taskIds(), mask, event.authorId()));
+    }
+
+    @Override
+    public void configureTasks(@NonNull ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(() -> {
+            if (appProperties.getMailDigest().isFlush()) {
+                flush();
+            }
+        }, appProperties.getMailDigest().getFlushInterval());
+    }
+
+    /**
+     * Send digests with expired window, longest waiting first.
+     * A failed digest is rolled back and kept for the next run, others are sent;
+     * the run stops when a whole batch failed, as the same users would be found again.
+     */
+    void flush() {
+        List<Long> userIds;
+        int sent;
+        do {
+            userIds = digestRepository.findDueUsers(appProperties.getMailDigest().getWindow(), MAX_USERS);
+            sent = 0;
+            for (Long userId : userIds) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> flush(userId));
+                    sent++;
+                } catch (RuntimeException e) {
+                    log.error("Digest for user {} failed", userId, e);
+                }
+            }
+        } while (userIds.size() == MAX_USERS && sent > 0);
+    }
+
+    private void flush(long userId) {
+        List<DigestItem> items = digestRepository.take(userId);
+        List<DigestItem> notified = items.stream()
+                .filter(item -> notificationRecipients.hasNotification(userId, getMask(item.getKind())))
+                .toList();
+        log.debug("Digest for user {}: {} of {} events", userId, notified.size(), items.size());
+        if (!notified.isEmpty()) {
+            mailService.sendBulkToUserWithParams(TEMPLATE, userRepository.getExisted(userId),
+                    Map.of("items", notified, "hostUrl", appProperties.getHostUrl()));
+        }
+    }
+
+    private static long getMask(String kind) {
+        return ReferenceService.getRefTo(RefType.MAIL_NOTIFICATION, kind).getLongFromAux();
+    }
+}
@@ -0,0 +1,5 @@
+package com.codegym.jira.mail.internal;
+
+//  rendered mail waiting in MAIL_OUTBOX
+record OutboxMail(long id, String email, String name, String template, String subject, String content, int attempts) {
+}
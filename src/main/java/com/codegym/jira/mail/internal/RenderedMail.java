@@ -0,0 +1,5 @@
+package com.codegym.jira.mail.internal;
+
+//  rendered group mail, not queued yet
+public record RenderedMail(String email, String name, String content) {
+}
@@ -0,0 +1,42 @@
+package com.codegym.jira.mail.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limiter: {@code rate} permits per second with bursts up to {@code burst}.
+ * A request larger than available tokens takes them in debt, the caller waits until the debt is refilled,
+ * and the next callers wait for it too.
+ */
+final class TokenBucket {
+    private final double permitsPerNano;
+    private final double burst;
+    private final LongSupplier nanoTime;
+    private double tokens;
+    private long refilled;
+
+    TokenBucket(double rate, int burst) {
+        this(rate, burst, System::nanoTime);
+    }
+
+    TokenBucket(double rate, int burst, LongSupplier nanoTime) {
+        this.permitsPerNano = rate / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.nanoTime = nanoTime;
+        this.tokens = burst;
+        this.refilled = nanoTime.getAsLong();
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(reserve(permits));
+    }
+
+    //  take permits and return time to wait for them, nanos
+    synchronized long reserve(int permits) {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilled) * permitsPerNano);
+        refilled = now;
+        tokens -= permits;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerNano);
+    }
+}
@@ -0,0 +1,192 @@
+package com.codegym.jira.profile.internal;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.common.internal.cache.CacheBus;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Who must be notified: in-memory user ids bitmap per bit of {@link com.codegym.jira.profile.internal.model.Profile#getMailNotifications()},
+ * intersected with active members of the object from {@code user_belong}.
+ * A bitmap per notification (not a mask per user) answers "who wants any of these notifications" by OR of a few bitmaps,
+ * without visiting every user on each task event.
+ * <p>
+ * Built from database on startup; after every profile save ({@link ProfileChangedEvent}) the user row is re-read
+ * and other nodes are asked to re-read it over {@link CacheBus}.
+ * Bitmaps are read on every task event and change with a single user's settings: the published array is never modified,
+ * a reload copies the bitmaps of the user's changed bits only and replaces the array. Rebuild and reload read the database
+ * under one lock, so a rebuild that read the profiles before a save cannot replace the state reloaded after it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationRecipients {
+    static final String TOPIC = "profile-notifications";
+    private static final String SELECT_MASKS = "SELECT id, mail_notifications FROM profile";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CacheBus bus;
+
+    //  rebuild and reload query under it: a lock, not a monitor, so a virtual thread is not pinned
+    private final Lock writeLock = new ReentrantLock();
+    //  usersByBit[i] - users with bit i of mail notifications mask on, immutable once published
+    private volatile BitSet[] usersByBit = newBits();
+
+    @PostConstruct
+    void initialize() {
+        bus.subscribe(TOPIC, new CacheBus.Subscriber() {
+            @Override
+            public void invalidate(@Nullable Set<String> userIds) {
+                if (userIds == null) {
+                    rebuild();
+                } else {
+                    reload(userIds.stream().map(Long::valueOf).toList());
+                }
+            }
+
+            @Override
+            public void resync() {
+                rebuild();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        BitSet[] bits = newBits();
+        writeLock.lock();
+        try {
+            jdbcTemplate.query(SELECT_MASKS, rs -> {
+                set(bits, toIndex(rs.getLong(1)), rs.getLong(2));
+            });
+            usersByBit = bits;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("notification recipients rebuilt: {} users with notifications", union(bits, -1L).cardinality());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(ProfileChangedEvent event) {
+        reload(List.of(event.userId()));
+        bus.publish(TOPIC, String.valueOf(event.userId()));
+    }
+
+    public boolean hasNotification(long userId, long mask) {
+        int idx = toIndex(userId);
+        BitSet[] bits = usersByBit;
+        for (int bit = 0; bit < bits.length; bit++) {
+            if ((mask & (1L << bit)) != 0 && bits[bit].get(idx)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Active members of objects with any of {@code mask} notifications on
+     *
+     * @param excludedUserId not notified (author of the change)
+     * @return object id → user ids in ascending order, objects without recipients are omitted
+     */
+    public Map<Long, long[]> find(ObjectType objectType, Collection<Long> objectIds, long mask, long excludedUserId) {
+        Map<Long, long[]> recipients = new HashMap<>();
+        if (objectIds.isEmpty() || mask == 0) {
+            return recipients;
+        }
+        Map<Long, BitSet> members = new HashMap<>();
+        jdbcTemplate.query("""
+                        SELECT object_id, user_id FROM user_belong
+                        WHERE object_id IN (:objectIds) AND object_type = :objectType AND endpoint IS NULL""",
+                new MapSqlParameterSource("objectIds", objectIds).addValue("objectType", objectType.ordinal()),
+                rs -> {
+                    members.computeIfAbsent(rs.getLong(1), id -> new BitSet()).set(toIndex(rs.getLong(2)));
+                });
+        BitSet notified = union(usersByBit, mask);
+        notified.clear(toIndex(excludedUserId));
+        members.forEach((objectId, users) -> {
+            users.and(notified);
+            if (!users.isEmpty()) {
+                recipients.put(objectId, users.stream().asLongStream().toArray());
+            }
+        });
+        return recipients;
+    }
+
+    private void reload(Collection<Long> userIds) {
+        writeLock.lock();
+        try {
+            Map<Long, Long> masks = new HashMap<>();
+            jdbcTemplate.query(SELECT_MASKS + " WHERE id IN (:userIds)", new MapSqlParameterSource("userIds", userIds),
+                    rs -> {
+                        masks.put(rs.getLong(1), rs.getLong(2));
+                    });
+            BitSet[] bits = usersByBit.clone();
+            boolean[] copied = new boolean[bits.length];
+            for (Long userId : userIds) {
+                int idx = toIndex(userId);
+                long mask = masks.getOrDefault(userId, 0L);
+                for (int bit = 0; bit < bits.length; bit++) {
+                    boolean on = (mask & (1L << bit)) != 0;
+                    if (bits[bit].get(idx) != on) {
+                        if (!copied[bit]) {
+                            bits[bit] = (BitSet) bits[bit].clone();
+                            copied[bit] = true;
+                        }
+                        bits[bit].set(idx, on);
+                    }
+                }
+            }
+            usersByBit = bits;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static BitSet[] newBits() {
+        BitSet[] bits = new BitSet[Long.SIZE];
+        for (int bit = 0; bit < bits.length; bit++) {
+            bits[bit] = new BitSet();
+        }
+        return bits;
+    }
+
+    private static void set(BitSet[] bits, int userIdx, long mask) {
+        for (int bit = 0; bit < bits.length; bit++) {
+            if ((mask & (1L << bit)) != 0) {
+                bits[bit].set(userIdx);
+            }
+        }
+    }
+
+    private static BitSet union(BitSet[] bits, long mask) {
+        BitSet result = new BitSet();
+        for (int bit = 0; bit < bits.length; bit++) {
+            if ((mask & (1L << bit)) != 0) {
+                result.or(bits[bit]);
+            }
+        }
+        return result;
+    }
+
+    private static int toIndex(long userId) {
+        return Math.toIntExact(userId);
+    }
+}
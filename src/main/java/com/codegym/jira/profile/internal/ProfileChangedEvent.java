@@ -0,0 +1,7 @@
+package com.codegym.jira.profile.internal;
+
+import com.codegym.jira.common.AppEvent;
+
+// profile of the user was saved
+public record ProfileChangedEvent(long userId) implements AppEvent {
+}
@@ -2,12 +2,14 @@ package com.codegym.jira.profile.internal.web;
 
 import com.codegym.jira.common.util.validation.ValidationUtil;
 import com.codegym.jira.profile.ProfileTo;
+import com.codegym.jira.profile.internal.ProfileChangedEvent;
 import com.codegym.jira.profile.internal.ProfileMapper;
 import com.codegym.jira.profile.internal.ProfileRepository;
 import com.codegym.jira.profile.internal.ProfileUtil;
 import com.codegym.jira.profile.internal.model.Profile;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 
 @Slf4j
 public abstract class AbstractProfileController {
@@ -15,6 +17,8 @@ public abstract class AbstractProfileController {
     protected ProfileMapper profileMapper;
     @Autowired
     private ProfileRepository profileRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     public ProfileTo get(long id) {
         log.info("get {}", id);
@@ -28,5 +32,6 @@ public abstract class AbstractProfileController {
         ProfileUtil.checkContactsExist(profileTo.getContacts());
         Profile profile = profileMapper.updateFromTo(profileRepository.getOrCreate(profileTo.id()), profileTo);
         profileRepository.save(profile);
+        eventPublisher.publishEvent(new ProfileChangedEvent(id));
     }
 }
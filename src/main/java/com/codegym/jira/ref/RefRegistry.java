@@ -0,0 +1,109 @@
+package com.codegym.jira.ref;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of all references, each type ordered by id.
+ * Derived views (enabled only, by object type code prefix) and ETags are precomputed, so reads are plain map lookups.
+ * Changes build a new snapshot with incremented version, see {@link ReferenceService}.
+ * Version counts local reloads and differs between nodes, ETag is a hash of the type content and is the same everywhere.
+ */
+final class RefRegistry {
+    static final RefRegistry EMPTY = new RefRegistry(0, new EnumMap<>(RefType.class));
+
+    private final long version;
+    private final Map<RefType, Map<String, RefTo>> refs;
+    private final Map<RefType, Map<String, RefTo>> enabledRefs;
+    private final Map<RefType, Map<ObjectType, Map<String, RefTo>>> refsByObjectType;
+    private final Map<RefType, String> eTags;
+
+    private RefRegistry(long version, EnumMap<RefType, Map<String, RefTo>> refs) {
+        this.version = version;
+        this.refs = Collections.unmodifiableMap(refs);
+        EnumMap<RefType, Map<String, RefTo>> enabledRefs = new EnumMap<>(RefType.class);
+        EnumMap<RefType, Map<ObjectType, Map<String, RefTo>>> refsByObjectType = new EnumMap<>(RefType.class);
+        EnumMap<RefType, String> eTags = new EnumMap<>(RefType.class);
+        refs.forEach((type, typeRefs) -> {
+            enabledRefs.put(type, filter(typeRefs, null));
+            eTags.put(type, eTag(typeRefs));
+            EnumMap<ObjectType, Map<String, RefTo>> byObjectType = new EnumMap<>(ObjectType.class);
+            for (ObjectType objectType : ObjectType.values()) {
+                byObjectType.put(objectType, filter(typeRefs, objectType.name().toLowerCase(Locale.ENGLISH)));
+            }
+            refsByObjectType.put(type, Collections.unmodifiableMap(byObjectType));
+        });
+        this.enabledRefs = Collections.unmodifiableMap(enabledRefs);
+        this.refsByObjectType = Collections.unmodifiableMap(refsByObjectType);
+        this.eTags = Collections.unmodifiableMap(eTags);
+    }
+
+    static RefRegistry of(long version, Collection<RefTo> refTos) {
+        EnumMap<RefType, Map<String, RefTo>> refs = new EnumMap<>(RefType.class);
+        for (RefTo refTo : refTos) {
+            refs.computeIfAbsent(refTo.getRefType(), type -> new LinkedHashMap<>()).putIfAbsent(refTo.getCode(), refTo);
+        }
+        refs.replaceAll((type, typeRefs) -> Collections.unmodifiableMap(typeRefs));
+        return new RefRegistry(version, refs);
+    }
+
+    //  new snapshot with replaced references of one type
+    RefRegistry with(RefType type, List<RefTo> typeRefTos) {
+        EnumMap<RefType, Map<String, RefTo>> newRefs = new EnumMap<>(RefType.class);
+        newRefs.putAll(refs);
+        Map<String, RefTo> typeRefs = new LinkedHashMap<>();
+        typeRefTos.forEach(refTo -> typeRefs.putIfAbsent(refTo.getCode(), refTo));
+        newRefs.put(type, Collections.unmodifiableMap(typeRefs));
+        return new RefRegistry(version + 1, newRefs);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    Map<String, RefTo> getRefs(RefType type) {
+        return refs.get(type);
+    }
+
+    String getETag(RefType type) {
+        return eTags.get(type);
+    }
+
+    Map<String, RefTo> getEnabledRefs(RefType type) {
+        return enabledRefs.get(type);
+    }
+
+    Map<String, RefTo> getRefs(RefType type, ObjectType objectType) {
+        Map<ObjectType, Map<String, RefTo>> byObjectType = refsByObjectType.get(type);
+        return byObjectType == null ? null : byObjectType.get(objectType);
+    }
+
+    //  strong ETag: MD5 of length-prefixed fields of the type references in id order
+    private static String eTag(Map<String, RefTo> typeRefs) {
+        StringBuilder content = new StringBuilder();
+        typeRefs.values().forEach(refTo -> Stream.of(String.valueOf(refTo.getId()), refTo.getCode(), refTo.getTitle(), refTo.getAux(), String.valueOf(refTo.isEnabled()))
+                .forEach(value -> content.append(value == null ? "-" : value.length() + ":" + value).append(';')));
+        return '"' + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    //  enabled refs if prefix is null, all refs with code prefix otherwise
+    private static Map<String, RefTo> filter(Map<String, RefTo> typeRefs, String prefix) {
+        Map<String, RefTo> filtered = new LinkedHashMap<>();
+        typeRefs.forEach((code, refTo) -> {
+            if (prefix == null ? refTo.isEnabled() : code.startsWith(prefix)) {
+                filtered.put(code, refTo);
+            }
+        });
+        return Collections.unmodifiableMap(filtered);
+    }
+}
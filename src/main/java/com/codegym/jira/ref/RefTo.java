@@ -1,27 +1,54 @@
 package com.codegym.jira.ref;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import com.codegym.jira.common.to.TitleTo;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.codegym.jira.common.util.Util;
+import com.codegym.jira.common.util.validation.Code;
+import com.codegym.jira.common.util.validation.Title;
 import jakarta.validation.constraints.NotNull;
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
 import org.springframework.lang.Nullable;
 
+/**
+ * Immutable: instances are cached by {@link ReferenceService} and shared between threads.
+ * Has the JSON shape of a {@link com.codegym.jira.common.to.TitleTo}, but no setters to inherit from it.
+ */
 @Value
-@EqualsAndHashCode(of = "refType", callSuper = true)
-public class RefTo extends TitleTo {
+@EqualsAndHashCode(of = {"id", "refType"})
+public class RefTo {
+    @Nullable
+    Long id;
     @NotNull
     RefType refType;
+    @Code
+    String code;
+    @Title
+    String title;
     @Nullable
     String aux;
-    @JsonIgnore
-    private String[] splittedAux;
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    boolean enabled;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    String[] splittedAux;
 
+    @JsonCreator
     public RefTo(Long id, RefType refType, String code, String title, @Nullable String aux) {
-        super(id, code, title);
+        this(id, refType, code, title, aux, true);
+    }
+
+    public RefTo(Long id, RefType refType, String code, String title, @Nullable String aux, boolean enabled) {
+        this.id = id;
         this.refType = refType;
+        this.code = code;
+        this.title = title;
         this.aux = aux;
+        this.enabled = enabled;
         this.splittedAux = (aux != null && aux.contains("|")) ? aux.split("\\|") : new String[0];
     }
 
@@ -1,42 +1,58 @@
 package com.codegym.jira.ref;
 
 import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.common.internal.cache.CacheBus;
 import com.codegym.jira.ref.internal.ReferenceMapper;
 import com.codegym.jira.ref.internal.ReferenceRepository;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.codegym.jira.common.util.Util.getExisted;
+import static com.codegym.jira.common.util.Util.notNull;
 
+/**
+ * References cache. Reads go through a single volatile snapshot without locks,
+ * changes reload the type from database and publish a new snapshot (writers are serialized).
+ * Other nodes reload changed types by {@link CacheBus} notification.
+ * Cached {@link RefTo} instances are immutable and shared between threads.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ReferenceService {
-    static Map<RefType, Map<String, RefTo>> refSelect;
+    static final String TOPIC = "refs";
+    private static final String NOT_FOUND = "Value with key {0} not found";
+
+    private static volatile RefRegistry registry = RefRegistry.EMPTY;
+    //  not synchronized: reload holds the lock during database query, which would pin a virtual thread
+    private final Lock reloadLock = new ReentrantLock();
     private final ReferenceRepository repository;
     private final ReferenceMapper mapper;
+    private final CacheBus bus;
 
     public static Map<String, RefTo> getRefs(RefType refType) {
         log.debug("get by type {}", refType);
-        return getExisted(refSelect, refType);
+        return notNull(registry.getRefs(refType), NOT_FOUND, refType);
+    }
+
+    public static Map<String, RefTo> getEnabledRefs(RefType refType) {
+        log.debug("get enabled by type {}", refType);
+        return notNull(registry.getEnabledRefs(refType), NOT_FOUND, refType);
     }
 
     public static Map<String, RefTo> getRefsByTypeStartWithObjectType(RefType refType, @NonNull ObjectType objectType) {
         log.debug("get by type {} start with objectType {}", refType, objectType);
-        return getRefs(refType).entrySet().stream()
-                .filter(entry -> entry.getKey().startsWith(objectType.name().toLowerCase(Locale.ENGLISH)))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return notNull(registry.getRefs(refType, objectType), NOT_FOUND, refType);
     }
 
     public static RefTo getRefTo(RefType refType, String code) {
@@ -44,28 +60,69 @@ public class ReferenceService {
         return getExisted(getRefs(refType), code);
     }
 
-    public static Map<String, RefTo> filterEnabled(Map<String, RefTo> unfilteredRefs) {
-        log.debug("filterEnabled");
-        return unfilteredRefs.entrySet().stream()
-                .filter(ref -> ref.getValue().isEnabled())
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    /**
+     * @return version of references on this node, incremented on every reload (not comparable between nodes)
+     */
+    public static long getVersion() {
+        return registry.getVersion();
+    }
+
+    /**
+     * @return strong ETag of the type references, the same on all nodes with the same content
+     */
+    public static String getETag(RefType refType) {
+        return notNull(registry.getETag(refType), NOT_FOUND, refType);
     }
 
     @PostConstruct
     void initialize() {
-        log.info("init loading");
-        List<RefTo> references = mapper.toToList(repository.findAllByOrderByIdAsc());
-        refSelect = references.stream()
-                .collect(Collectors.groupingBy(RefTo::getRefType,
-                        Collectors.collectingAndThen(Collectors.toMap(RefTo::getCode, Function.identity(), (ref1, ref2) -> ref1, LinkedHashMap::new), Collections::unmodifiableMap)));
+        reloadAll();
+        bus.subscribe(TOPIC, new CacheBus.Subscriber() {
+            @Override
+            public void invalidate(@Nullable Set<String> types) {
+                if (types == null) {
+                    reloadAll();
+                } else {
+                    types.forEach(type -> reload(RefType.valueOf(type)));
+                }
+            }
 
+            @Override
+            public void resync() {
+                reloadAll();
+            }
+        });
     }
 
+    //  reload type and ask other nodes to reload it
     public void updateRefs(RefType type) {
-        log.debug("update by type {}", type);
-        List<RefTo> refTos = mapper.toToList(repository.getByType(type));
-        Map<String, RefTo> refToMap = refTos.stream()
-                .collect(Collectors.toMap(RefTo::getCode, Function.identity()));
-        refSelect.put(type, refToMap);
+        reload(type);
+        bus.publish(TOPIC, type.name());
+    }
+
+    private void reloadAll() {
+        reloadLock.lock();
+        try {
+            log.info("load all");
+            List<RefTo> references = mapper.toToList(repository.findAllByOrderByIdAsc());
+            publish(RefRegistry.of(registry.getVersion() + 1, references));
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private void reload(RefType type) {
+        reloadLock.lock();
+        try {
+            log.debug("update by type {}", type);
+            publish(registry.with(type, mapper.toToList(repository.getByType(type))));
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private static void publish(RefRegistry newRegistry) {
+        TaskWorkflow.rebuild(newRegistry.getRefs(RefType.TASK_STATUS) == null ? Map.of() : newRegistry.getRefs(RefType.TASK_STATUS));
+        registry = newRegistry;
     }
 }
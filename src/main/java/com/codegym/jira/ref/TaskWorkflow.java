@@ -0,0 +1,110 @@
+package com.codegym.jira.ref;
+
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TASK_STATUS references compiled into an immutable transition matrix.
+ * Status aux is {@code "<next statuses, comma separated>|<user type which can be assigned>"}.
+ * <p>
+ * Every status gets an ordinal (reference id order), transitions are {@code long} bitmasks by ordinal
+ * (a status can always "transit" to itself), allowed targets are precomputed,
+ * so {@link #canTransition}, {@link #allowedTargets} and {@link #assigneeUserType} allocate nothing.
+ * Recompiled by {@link ReferenceService} on every TASK_STATUS load and published by a single volatile write.
+ */
+public final class TaskWorkflow {
+    static final int MAX_STATUSES = Long.SIZE;
+
+    private static volatile TaskWorkflow current = new TaskWorkflow(Map.of(), new long[0], new String[0], List.of());
+
+    private final Map<String, Integer> ordinals;
+    private final long[] transitions;
+    private final String[] userTypes;
+    private final List<Map<String, RefTo>> targets;
+
+    private TaskWorkflow(Map<String, Integer> ordinals, long[] transitions, String[] userTypes, List<Map<String, RefTo>> targets) {
+        this.ordinals = ordinals;
+        this.transitions = transitions;
+        this.userTypes = userTypes;
+        this.targets = targets;
+    }
+
+    public static TaskWorkflow get() {
+        return current;
+    }
+
+    static void rebuild(Map<String, RefTo> statusRefs) {
+        current = compile(statusRefs);
+    }
+
+    static TaskWorkflow compile(Map<String, RefTo> statusRefs) {
+        List<RefTo> statuses = statusRefs.values().stream()
+                .sorted(Comparator.comparing(RefTo::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        if (statuses.size() > MAX_STATUSES) {
+            throw new IllegalStateException("Task workflow supports up to " + MAX_STATUSES + " statuses, found " + statuses.size());
+        }
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < statuses.size(); i++) {
+            ordinals.put(statuses.get(i).getCode(), i);
+        }
+        long[] transitions = new long[statuses.size()];
+        String[] userTypes = new String[statuses.size()];
+        for (int i = 0; i < statuses.size(); i++) {
+            RefTo status = statuses.get(i);
+            transitions[i] = 1L << i;
+            String next = status.getAux(0);
+            if (next != null) {
+                for (String code : next.split(",")) {
+                    Integer target = ordinals.get(code.trim());
+                    if (target != null) {
+                        transitions[i] |= 1L << target;
+                    }
+                }
+            }
+            String userType = status.getAux(1);
+            userTypes[i] = userType == null || userType.isEmpty() ? null : userType;
+        }
+        List<Map<String, RefTo>> targets = new ArrayList<>(statuses.size());
+        for (long mask : transitions) {
+            Map<String, RefTo> allowed = new LinkedHashMap<>();
+            for (int j = 0; j < statuses.size(); j++) {
+                if ((mask & 1L << j) != 0) {
+                    allowed.put(statuses.get(j).getCode(), statuses.get(j));
+                }
+            }
+            targets.add(Collections.unmodifiableMap(allowed));
+        }
+        return new TaskWorkflow(Map.copyOf(ordinals), transitions, userTypes, List.copyOf(targets));
+    }
+
+    public boolean canTransition(String from, String to) {
+        Integer fromOrdinal = ordinals.get(from);
+        Integer toOrdinal = ordinals.get(to);
+        return fromOrdinal != null && toOrdinal != null && (transitions[fromOrdinal] & 1L << toOrdinal) != 0;
+    }
+
+    /**
+     * @return statuses reachable from {@code from} (including itself) in reference order, empty for unknown status
+     */
+    public Map<String, RefTo> allowedTargets(String from) {
+        Integer ordinal = ordinals.get(from);
+        return ordinal == null ? Map.of() : targets.get(ordinal);
+    }
+
+    /**
+     * @return user type which can be assigned to (unassigned from) a task in this status, null if nobody
+     */
+    @Nullable
+    public String assigneeUserType(String status) {
+        Integer ordinal = ordinals.get(status);
+        return ordinal == null ? null : userTypes[ordinal];
+    }
+}
@@ -1,10 +1,24 @@
 package com.codegym.jira.ref.internal;
 
 import com.codegym.jira.ref.RefTo;
-import com.codegym.jira.common.BaseMapper;
-import com.codegym.jira.common.TimestampMapper;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
-@Mapper(config = TimestampMapper.class)
-public interface ReferenceMapper extends BaseMapper<Reference, RefTo> {
+import java.util.Collection;
+import java.util.List;
+
+//  not a BaseMapper: RefTo is immutable and is no BaseTo
+@Mapper(componentModel = "spring")
+public interface ReferenceMapper {
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "enabled", ignore = true)
+    Reference toEntity(RefTo to);
+
+    //  all fields go to the constructor
+    default RefTo toTo(Reference entity) {
+        return new RefTo(entity.id(), entity.getRefType(), entity.getCode(), entity.getTitle(), entity.getAux(), entity.isEnabled());
+    }
+
+    List<RefTo> toToList(Collection<Reference> entities);
 }
@@ -13,7 +13,7 @@ import java.util.Optional;
 public interface ReferenceRepository extends BaseRepository<Reference> {
     List<Reference> findAllByOrderByIdAsc();
 
-    @Query("SELECT r FROM Reference r WHERE r.refType=:type")
+    @Query("SELECT r FROM Reference r WHERE r.refType=:type ORDER BY r.id")
     List<Reference> getByType(RefType type);
 
     @Query("SELECT r FROM Reference r WHERE r.refType=:type AND r.code = :code")
@@ -1,5 +1,6 @@
 package com.codegym.jira.ref.internal.web;
 
+import com.codegym.jira.common.error.IllegalRequestDataException;
 import com.codegym.jira.ref.RefTo;
 import com.codegym.jira.ref.RefType;
 import com.codegym.jira.ref.ReferenceService;
@@ -12,13 +13,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
 import static com.codegym.jira.common.BaseHandler.createdResponse;
-import static com.codegym.jira.common.util.validation.ValidationUtil.checkNew;
 
 @RestController
 @RequestMapping(value = ReferenceController.REST_URL, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -32,9 +32,19 @@ public class ReferenceController {
     private ReferenceService service;
     private ReferenceRepository repository;
 
+    @GetMapping("/version")
+    public long getVersion() {
+        return ReferenceService.getVersion();
+    }
+
+    //  ETag is a hash of the type references, conditional request gets 304 while they are not changed
     @GetMapping("/{type}")
-    public Map<String, RefTo> getRefsByType(@PathVariable RefType type) {
-        return ReferenceService.getRefs(type);
+    public ResponseEntity<Map<String, RefTo>> getRefsByType(@PathVariable RefType type, WebRequest request) {
+        String etag = ReferenceService.getETag(type);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ReferenceService.getRefs(type));
     }
 
     @GetMapping(PATH_TYPE_CODE)
@@ -47,41 +57,41 @@ public class ReferenceController {
     public void delete(@PathVariable RefType type, @PathVariable String code) {
         log.debug("delete with type {}, code {}", type, code);
         RefTo ref = ReferenceService.getRefTo(type, code);
-        repository.deleteExisted(ref.id());
+        repository.deleteExisted(ref.getId());
         service.updateRefs(type);
     }
 
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<RefTo> create(@Valid @RequestBody RefTo refTo) {
         log.debug("create {}", refTo);
-        checkNew(refTo);
+        if (refTo.getId() != null) {
+            throw new IllegalRequestDataException("RefTo must be new (id=null)");
+        }
         Reference ref = repository.save(mapper.toEntity(refTo));
-        refTo.setId(ref.id());
-        RefType refType = refTo.getRefType();
+        RefTo created = mapper.toTo(ref);
+        RefType refType = created.getRefType();
         service.updateRefs(refType);
-        return createdResponse(REST_URL + PATH_TYPE_CODE, refTo, refType, refTo.getCode());
+        return createdResponse(REST_URL + PATH_TYPE_CODE, created, refType, created.getCode());
     }
 
     @PutMapping(PATH_TYPE_CODE)
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    @Transactional
     public void updateTitle(@PathVariable RefType type, @PathVariable String code, @RequestParam String title) {
         log.debug("update Ref with type={}, code={} with title={}", title, code, title);
         Reference ref = getExisted(type, code);
         ref.setTitle(title);
         repository.save(ref);
-        ReferenceService.getRefTo(type, code).setTitle(title);
+        service.updateRefs(type);
     }
 
     @PatchMapping(PATH_TYPE_CODE)
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    @Transactional
     public void enable(@PathVariable RefType type, @PathVariable String code, @RequestParam boolean enabled) {
         log.debug("enable Ref with type={}, code={} with enabled={}", type, code, enabled);
         Reference ref = getExisted(type, code);
         ref.setEnabled(enabled);
         repository.save(ref);
-        ReferenceService.getRefTo(type, code).setEnabled(enabled);
+        service.updateRefs(type);
     }
 
     private Reference getExisted(RefType type, String code) {
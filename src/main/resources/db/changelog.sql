@@ -5,8 +5,17 @@ DROP TABLE IF EXISTS CONTACT;
 DROP TABLE IF EXISTS MAIL_CASE;
 DROP
 SEQUENCE IF EXISTS MAIL_CASE_ID_SEQ;
+DROP TABLE IF EXISTS MAIL_OUTBOX;
+DROP
+SEQUENCE IF EXISTS MAIL_OUTBOX_ID_SEQ;
+DROP TABLE IF EXISTS MAIL_DIGEST_EVENT;
+DROP
+SEQUENCE IF EXISTS MAIL_DIGEST_EVENT_ID_SEQ;
 DROP TABLE IF EXISTS PROFILE;
 DROP TABLE IF EXISTS TASK_TAG;
+DROP TABLE IF EXISTS TASK_TIMING;
+DROP TABLE IF EXISTS TASK_CLOSURE;
+DROP TABLE IF EXISTS PROJECT_CLOSURE;
 DROP TABLE IF EXISTS USER_BELONG;
 DROP
 SEQUENCE IF EXISTS USER_BELONG_ID_SEQ;
@@ -28,6 +37,7 @@ SEQUENCE IF EXISTS REFERENCE_ID_SEQ;
 DROP TABLE IF EXISTS ATTACHMENT;
 DROP
 SEQUENCE IF EXISTS ATTACHMENT_ID_SEQ;
+DROP TABLE IF EXISTS ATTACHMENT_BLOB;
 DROP TABLE IF EXISTS USERS;
 DROP
 SEQUENCE IF EXISTS USERS_ID_SEQ;
@@ -313,3 +323,170 @@ values ('todo', 'ToDo', 3, 'in_progress,canceled|'),
 
 drop index UK_USER_BELONG;
 create unique index UK_USER_BELONG on USER_BELONG (OBJECT_ID, OBJECT_TYPE, USER_ID, USER_TYPE_CODE) where ENDPOINT is null;
+
+-- current task state materialized from the latest ACTIVITY values (see TaskRepository.refreshFromActivities)
+ALTER TABLE TASK
+    ADD COLUMN DESCRIPTION varchar(4096);
+ALTER TABLE TASK
+    ADD COLUMN PRIORITY_CODE varchar(32);
+ALTER TABLE TASK
+    ADD COLUMN ESTIMATE integer;
+ALTER TABLE TASK
+    ADD COLUMN UPDATED timestamp;
+
+-- backfill from ACTIVITY, data scripts call it after inserting activities
+create or replace function FILL_TASK_STATE() returns void
+    language sql as
+'update TASK t
+ set DESCRIPTION   = (select a.DESCRIPTION from ACTIVITY a where a.TASK_ID = t.ID and a.DESCRIPTION is not null order by a.UPDATED desc, a.ID desc limit 1),
+     PRIORITY_CODE = (select a.PRIORITY_CODE from ACTIVITY a where a.TASK_ID = t.ID and a.PRIORITY_CODE is not null order by a.UPDATED desc, a.ID desc limit 1),
+     ESTIMATE      = (select a.ESTIMATE from ACTIVITY a where a.TASK_ID = t.ID and a.ESTIMATE is not null order by a.UPDATED desc, a.ID desc limit 1),
+     UPDATED       = (select max(a.UPDATED) from ACTIVITY a where a.TASK_ID = t.ID)';
+select FILL_TASK_STATE();
+
+create index IX_ACTIVITY_TASK_UPDATED on ACTIVITY (TASK_ID, UPDATED desc, ID desc);
+create index IX_ATTACHMENT_OBJECT_DATE_TIME on ATTACHMENT (OBJECT_ID, OBJECT_TYPE, DATE_TIME desc, ID desc);
+
+-- status transition timestamps for cycle-time reports (see TaskTimingRepository)
+create table TASK_TIMING
+(
+    TASK_ID        bigint primary key,
+    STARTED        timestamp,
+    DEVELOPED      timestamp,
+    REVIEW_STARTED timestamp,
+    DONE           timestamp,
+    constraint FK_TASK_TIMING foreign key (TASK_ID) references TASK (ID) on delete cascade
+);
+
+-- backfill from ACTIVITY status history, data scripts call it after inserting activities
+create or replace function FILL_TASK_TIMING() returns void
+    language sql as
+'insert into TASK_TIMING (TASK_ID, STARTED, DEVELOPED, REVIEW_STARTED, DONE)
+ select t.ID,
+        s.STARTED,
+        (select min(a.UPDATED) from ACTIVITY a where a.TASK_ID = t.ID and a.STATUS_CODE = ''ready_for_review'' and a.UPDATED >= s.STARTED),
+        r.REVIEW_STARTED,
+        (select min(a.UPDATED) from ACTIVITY a where a.TASK_ID = t.ID and a.STATUS_CODE = ''done'' and a.UPDATED >= r.REVIEW_STARTED)
+ from TASK t
+          cross join lateral (select min(a.UPDATED) as STARTED from ACTIVITY a where a.TASK_ID = t.ID and a.STATUS_CODE = ''in_progress'') s
+          cross join lateral (select min(a.UPDATED) as REVIEW_STARTED from ACTIVITY a where a.TASK_ID = t.ID and a.STATUS_CODE = ''ready_for_review'') r';
+select FILL_TASK_TIMING();
+
+-- full-text search (see TaskSearchRepository)
+ALTER TABLE TASK
+    ADD COLUMN SEARCH_VECTOR tsvector generated always as (
+        setweight(to_tsvector('english', coalesce(TITLE, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(DESCRIPTION, '')), 'B')) stored;
+ALTER TABLE ACTIVITY
+    ADD COLUMN SEARCH_VECTOR tsvector generated always as (
+        setweight(to_tsvector('english', coalesce(COMMENT, '')), 'B') ||
+        setweight(to_tsvector('english', coalesce(DESCRIPTION, '')), 'C')) stored;
+create index IX_TASK_SEARCH on TASK using gin (SEARCH_VECTOR);
+create index IX_ACTIVITY_SEARCH on ACTIVITY using gin (SEARCH_VECTOR);
+
+-- paged tree (see TreeRepository)
+create index IX_PROJECT_PARENT on PROJECT (PARENT_ID);
+create index IX_TASK_PARENT on TASK (PARENT_ID);
+create index IX_TASK_SPRINT on TASK (SPRINT_ID, ID);
+create index IX_TASK_BACKLOG on TASK (PROJECT_ID, ID) where SPRINT_ID is null;
+
+-- task and project hierarchy closure (see ClosureRepository)
+create table TASK_CLOSURE
+(
+    ANCESTOR_ID   bigint  not null,
+    DESCENDANT_ID bigint  not null,
+    DEPTH         integer not null,
+    constraint PK_TASK_CLOSURE primary key (ANCESTOR_ID, DESCENDANT_ID),
+    constraint FK_TASK_CLOSURE_ANCESTOR foreign key (ANCESTOR_ID) references TASK (ID) on delete cascade,
+    constraint FK_TASK_CLOSURE_DESCENDANT foreign key (DESCENDANT_ID) references TASK (ID) on delete cascade
+);
+create index IX_TASK_CLOSURE_DESCENDANT on TASK_CLOSURE (DESCENDANT_ID, DEPTH);
+
+create table PROJECT_CLOSURE
+(
+    ANCESTOR_ID   bigint  not null,
+    DESCENDANT_ID bigint  not null,
+    DEPTH         integer not null,
+    constraint PK_PROJECT_CLOSURE primary key (ANCESTOR_ID, DESCENDANT_ID),
+    constraint FK_PROJECT_CLOSURE_ANCESTOR foreign key (ANCESTOR_ID) references PROJECT (ID) on delete cascade,
+    constraint FK_PROJECT_CLOSURE_DESCENDANT foreign key (DESCENDANT_ID) references PROJECT (ID) on delete cascade
+);
+create index IX_PROJECT_CLOSURE_DESCENDANT on PROJECT_CLOSURE (DESCENDANT_ID, DEPTH);
+
+-- backfill from PARENT_ID, data scripts call it after inserting projects and tasks
+create or replace function FILL_CLOSURES() returns void
+    language sql as
+'insert into TASK_CLOSURE (ANCESTOR_ID, DESCENDANT_ID, DEPTH)
+ with recursive C as (select ID as ANCESTOR_ID, ID as DESCENDANT_ID, 0 as DEPTH
+                      from TASK
+                      union all
+                      select C.ANCESTOR_ID, t.ID, C.DEPTH + 1
+                      from C
+                               join TASK t on t.PARENT_ID = C.DESCENDANT_ID)
+ select ANCESTOR_ID, DESCENDANT_ID, DEPTH
+ from C;
+
+ insert into PROJECT_CLOSURE (ANCESTOR_ID, DESCENDANT_ID, DEPTH)
+ with recursive C as (select ID as ANCESTOR_ID, ID as DESCENDANT_ID, 0 as DEPTH
+                      from PROJECT
+                      union all
+                      select C.ANCESTOR_ID, p.ID, C.DEPTH + 1
+                      from C
+                               join PROJECT p on p.PARENT_ID = C.DESCENDANT_ID)
+ select ANCESTOR_ID, DESCENDANT_ID, DEPTH
+ from C';
+select FILL_CLOSURES();
+
+create table MAIL_OUTBOX
+(
+    ID           bigserial primary key,
+    EMAIL        varchar(255)  not null,
+    NAME         varchar(255)  not null,
+    TEMPLATE     varchar(255)  not null,
+    SUBJECT      varchar(1024) not null,
+    CONTENT      text          not null,
+    PRIORITY     smallint      not null default 0,
+    ATTEMPTS     integer       not null default 0,
+    NEXT_ATTEMPT timestamp     not null default now(),
+    LAST_ERROR   varchar(1024),
+    CREATED      timestamp     not null default now()
+);
+create index IX_MAIL_OUTBOX_NEXT_ATTEMPT on MAIL_OUTBOX (PRIORITY, NEXT_ATTEMPT);
+
+create table MAIL_DIGEST_EVENT
+(
+    ID          bigserial primary key,
+    USER_ID     bigint      not null,
+    TASK_ID     bigint      not null,
+    KIND        varchar(32) not null,
+    AUTHOR_ID   bigint      not null,
+    VALUE       text,
+    ASSIGNEE_ID bigint,
+    CREATED     timestamp   not null default now(),
+    constraint FK_MAIL_DIGEST_EVENT_USER foreign key (USER_ID) references USERS (ID) on delete cascade,
+    constraint FK_MAIL_DIGEST_EVENT_TASK foreign key (TASK_ID) references TASK (ID) on delete cascade,
+    constraint FK_MAIL_DIGEST_EVENT_AUTHOR foreign key (AUTHOR_ID) references USERS (ID) on delete cascade,
+    constraint FK_MAIL_DIGEST_EVENT_ASSIGNEE foreign key (ASSIGNEE_ID) references USERS (ID) on delete cascade
+);
+create index IX_MAIL_DIGEST_EVENT_USER on MAIL_DIGEST_EVENT (USER_ID, CREATED);
+
+insert into REFERENCE (CODE, TITLE, REF_TYPE, AUX)
+-- MAIL_NOTIFICATION of task digest
+values ('status_changed', 'Status changed', 6, '64'),
+       ('commented', 'Commented', 6, '128');
+
+-- content-addressed attachment files, shared by all attachments with the same SHA-256 (see AttachmentStore)
+create table ATTACHMENT_BLOB
+(
+    HASH        char(64)  not null primary key,
+    SIZE        bigint    not null,
+    STORED_SIZE bigint    not null,
+    ENCODING    varchar(16),
+    REF_COUNT   integer   not null,
+    CREATED     timestamp not null default now()
+);
+ALTER TABLE ATTACHMENT
+    ADD COLUMN CONTENT_HASH char(64) references ATTACHMENT_BLOB (HASH);
+
+-- attachment bytes of a user (see AttachmentQuota)
+create index IX_ATTACHMENT_USER on ATTACHMENT (USER_ID);
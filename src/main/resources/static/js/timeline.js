@@ -0,0 +1,39 @@
+// older task comments and changes from /api/tasks/{id}/timeline, attachments are listed separately
+function loadOlder(button) {
+    const $button = $(button);
+    $.get('/api/tasks/' + $button.attr('data-task-id') + '/timeline', {cursor: $button.attr('data-cursor')}, page => {
+        page.entries.forEach(entry => {
+            if (entry.kind === 'COMMENT') {
+                $('#comments-area').append(commentCard(entry.activity));
+            } else if (entry.kind === 'CHANGE') {
+                $('#history-log tbody').append(historyRow(entry.activity));
+            }
+        });
+        if (page.nextCursor) {
+            $button.attr('data-cursor', page.nextCursor);
+        } else {
+            $button.remove();
+        }
+    });
+}
+
+function commentCard(activity) {
+    return $('<div class="card bg-light mb-2 me-1">').append($('<div class="card-body py-2">').append(
+        $('<div class="fw-bold">').text(authorName(activity)),
+        $('<small>').text(formatUpdated(activity.updated)),
+        $('<div class="mt-1" style="white-space: pre-wrap">').text(activity.comment)));
+}
+
+function historyRow(activity) {
+    return $('<tr>').append([authorName(activity), formatUpdated(activity.updated), activity.statusCode,
+        activity.priorityCode, activity.typeCode, activity.title, activity.estimate]
+        .map(value => $('<td>').text(value == null ? '' : value)));
+}
+
+function authorName(activity) {
+    return activity.author ? activity.author.displayName : '';
+}
+
+function formatUpdated(updated) {
+    return updated ? updated.replace('T', ' ').substring(0, 19) : '';
+}
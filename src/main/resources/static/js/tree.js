@@ -15,11 +15,12 @@ $(function () {
             map: {}
         },
         source: {
-            url: "/api/tree/projects",
+            url: "/api/tree/nodes",
             cache: false,
         },
-        loadChildren: (event, data) => addSubNodesToChildren(event, data),
         lazyLoad: (event, data) => loadChildrenNodes(event, data),
+        postProcess: (event, data) => addPagingNode(event, data),
+        clickPaging: (event, data) => loadNextPage(event, data),
         activate: (event, data) => loadEntityInfo(event, data),
         renderNode: (event, data) => addClassByNodeType(event, data),
         icon: (event, data) => addIcon(data)
@@ -27,48 +28,34 @@ $(function () {
 });
 
 function loadChildrenNodes(event, data) {
-    let ajaxUrl;
-    switch (data.node.data.nodeType) {
-        case 'PROJECT': {
-            ajaxUrl = '/api/tree/projects/' + data.node.data.id + '/sprints';
-            break;
-        }
-        case 'SPRINT': {
-            if (data.node.data.id === 0) { //is backlog
-                ajaxUrl = '/api/tree/projects/' + data.node.parent.data.id + '/backlog/tasks';
-            } else {
-                ajaxUrl = '/api/tree/sprints/' + data.node.data.id + '/tasks';
-            }
-            break;
-        }
-    }
     data.result = {
-        url: ajaxUrl,
-        data: {mode: "children", parent: data.node.key},
+        url: '/api/tree/nodes/' + data.node.key + '/children',
         cache: false
     };
 }
 
-function addSubNodesToChildren(event, data) {
-    if (data.node.data.nodeType === undefined) {
-        return;
-    }
-    const subNodes = data.node.data.subNodes;
-    if (subNodes.length > 0) {
-        for (let children of subNodes) {
-            data.node.addChildren({
-                key: children.key,
-                lazy: children.lazy,
-                children: null,
-                title: children.title,
-                subNodes: children.subNodes,
-                nodeType: children.nodeType,
-                id: children.id
-            }, data.node.children.length > 0 ? data.node.children[0] : null)
-        }
+//response is a page of nodes, next page is loaded by click on the 'More...' node
+function addPagingNode(event, data) {
+    data.result = data.response.nodes;
+    if (data.response.nextCursor) {
+        data.result.push({
+            title: 'More...',
+            statusNodeType: 'paging',
+            icon: false,
+            url: data.options.url,
+            cursor: data.response.nextCursor
+        });
     }
 }
 
+function loadNextPage(event, data) {
+    data.node.replaceWith({
+        url: data.node.data.url,
+        data: {cursor: data.node.data.cursor},
+        cache: false
+    });
+}
+
 function loadEntityInfo(event, data) {
     const nodeData = data.node.data;
     const id = nodeData.id;
@@ -0,0 +1,325 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.login.internal.web.UserTestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.codegym.jira.bugtracking.attachment.AttachmentController.REST_URL;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AttachmentControllerTest extends AbstractControllerTest {
+    private static final String REST_URL_SLASH = REST_URL + "/";
+    private static final String DOWNLOAD_URL = REST_URL + "/download/";
+    private static final String STATS_URL = AdminAttachmentController.REST_URL + "/stats";
+    private static final byte[] CONTENT = "ERROR build failed\n".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void uploadDuplicates() throws Exception {
+        String hash = hash();
+        Path path = AttachmentStore.getPath(hash);
+        upload(1);
+        upload(2);
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM attachment WHERE content_hash = ? ORDER BY id", Long.class, hash);
+        assertEquals(2, ids.size());
+        assertEquals(2, getRefCount(hash));
+        assertArrayEquals(CONTENT, Files.readAllBytes(path));
+
+        delete(ids.get(0));
+        assertEquals(1, getRefCount(hash));
+        assertTrue(Files.exists(path));
+
+        delete(ids.get(1));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM attachment_blob WHERE hash = ?", Integer.class, hash));
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void uploadEmpty() throws Exception {
+        perform(MockMvcRequestBuilders.multipart(REST_URL)
+                .file(new MockMultipartFile("file", "empty.log", "text/plain", new byte[0]))
+                .param("type", "TASK")
+                .param("objectId", "1"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void download() throws Exception {
+        long id = upload(1);
+        perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, '"' + hash() + '"'))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, FileDownload.IMMUTABLE))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"build.bin\""))
+                .andExpect(content().bytes(CONTENT));
+        delete(id);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadNotModified() throws Exception {
+        long id = upload(1);
+        perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.IF_NONE_MATCH, '"' + hash() + '"'))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        delete(id);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadRange() throws Exception {
+        long id = upload(1);
+        perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.RANGE, "bytes=0-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-4/" + CONTENT.length))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("ERROR"));
+        delete(id);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadMultiRange() throws Exception {
+        long id = upload(1);
+        String body = perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.RANGE, "bytes=0-4,6-10"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges; boundary=")))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(body.contains("Content-Range: bytes 0-4/" + CONTENT.length + "\r\n\r\nERROR\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 6-10/" + CONTENT.length + "\r\n\r\nbuild\r\n"));
+        delete(id);
+    }
+
+    //  overlapping and adjacent ranges are sent once
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadOverlappingRanges() throws Exception {
+        long id = upload(1);
+        perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.RANGE, "bytes=0-2,1-4,0-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-4/" + CONTENT.length))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("ERROR"));
+        delete(id);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadRangeNotSatisfiable() throws Exception {
+        long id = upload(1);
+        perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.RANGE, "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length));
+        delete(id);
+    }
+
+    //  changed content - the whole file
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadIfRangeChanged() throws Exception {
+        long id = upload(1);
+        perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.RANGE, "bytes=0-4")
+                .header(HttpHeaders.IF_RANGE, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(CONTENT));
+        delete(id);
+    }
+
+    //  binary content is stored as is
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void uploadCompressed() throws Exception {
+        long id = upload(1, "build.log", MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        Path path = AttachmentStore.getPath(hash(), true);
+        assertEquals(path.toString(), getFileLink(id));
+        assertFalse(Files.exists(AttachmentStore.getPath(hash())));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+        assertEquals("gzip", jdbcTemplate.queryForObject("SELECT encoding FROM attachment_blob WHERE hash = ?", String.class, hash()));
+        delete(id);
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadGzip() throws Exception {
+        long id = upload(1, "tasks.json", MediaType.APPLICATION_JSON_VALUE);
+        byte[] gzipped = perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, '"' + hash() + "-gzip\""))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, Files.size(AttachmentStore.getPath(hash(), true))))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertArrayEquals(CONTENT, in.readAllBytes());
+        }
+        delete(id);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void downloadDecompressed() throws Exception {
+        long id = upload(1, "build.log", "text/plain");
+        perform(MockMvcRequestBuilders.get(DOWNLOAD_URL + id)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, '"' + hash() + '"'))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "none"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length))
+                .andExpect(content().bytes(CONTENT));
+        delete(id);
+    }
+
+    //  malformed declared type: compressible by file name
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void uploadInvalidContentType() throws Exception {
+        long id = upload(1, "build.log", "text");
+        assertEquals(AttachmentStore.getPath(hash(), true).toString(), getFileLink(id));
+        delete(id);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.ADMIN_MAIL)
+    void getStats() throws Exception {
+        long textId = upload(1, "build.log", "text/plain");
+        long textCopyId = upload(2, "build.log", "text/plain");
+        perform(MockMvcRequestBuilders.get(STATS_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].objectType").value("TASK"))
+                .andExpect(jsonPath("$[0].files").value(2))
+                .andExpect(jsonPath("$[0].compressed").value(2))
+                .andExpect(jsonPath("$[0].size").value(2 * CONTENT.length))
+                .andExpect(jsonPath("$[0].storedSize").value(2 * Files.size(AttachmentStore.getPath(hash(), true))));
+        delete(textId);
+        delete(textCopyId);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getStatsForbidden() throws Exception {
+        perform(MockMvcRequestBuilders.get(STATS_URL))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void uploadStream() throws Exception {
+        perform(MockMvcRequestBuilders.post(REST_URL + "/stream")
+                .param("type", "TASK")
+                .param("objectId", "1")
+                .param("name", "build.bin")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(CONTENT))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("build.bin"))
+                .andExpect(jsonPath("$.contentHash").value(hash()));
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM attachment WHERE content_hash = ?", Long.class, hash());
+        assertEquals(AttachmentStore.getPath(hash()).toString(), getFileLink(id));
+        assertArrayEquals(CONTENT, Files.readAllBytes(AttachmentStore.getPath(hash())));
+        delete(id);
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void uploadStreamNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.post(REST_URL + "/stream")
+                .param("type", "TASK")
+                .param("objectId", String.valueOf(Integer.MAX_VALUE))
+                .param("name", "build.bin")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(CONTENT))
+                .andExpect(status().isNotFound());
+    }
+
+    //  only a raw octet-stream body is taken as file content
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void uploadStreamUnsupportedType() throws Exception {
+        perform(MockMvcRequestBuilders.post(REST_URL + "/stream")
+                .param("type", "TASK")
+                .param("objectId", "1")
+                .param("name", "build.bin")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(CONTENT))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void deleteNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.delete(REST_URL_SLASH + Integer.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    private long upload(long taskId) throws Exception {
+        return upload(taskId, "build.bin", MediaType.APPLICATION_OCTET_STREAM_VALUE);
+    }
+
+    private long upload(long taskId, String name, String contentType) throws Exception {
+        perform(MockMvcRequestBuilders.multipart(REST_URL)
+                .file(new MockMultipartFile("file", name, contentType, CONTENT))
+                .param("type", "TASK")
+                .param("objectId", String.valueOf(taskId)))
+                .andExpect(status().isCreated());
+        Long id = jdbcTemplate.queryForObject("SELECT max(id) FROM attachment", Long.class);
+        return id == null ? 0 : id;
+    }
+
+    private String getFileLink(long id) {
+        return jdbcTemplate.queryForObject("SELECT file_link FROM attachment WHERE id = ?", String.class, id);
+    }
+
+    private void delete(long id) throws Exception {
+        perform(MockMvcRequestBuilders.delete(REST_URL_SLASH + id))
+                .andExpect(status().isNoContent());
+    }
+
+    private static String hash() throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+    }
+
+    private int getRefCount(String hash) {
+        Integer refCount = jdbcTemplate.queryForObject("SELECT ref_count FROM attachment_blob WHERE hash = ?", Integer.class, hash);
+        return refCount == null ? 0 : refCount;
+    }
+}
@@ -0,0 +1,90 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.AbstractControllerTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//  migration runs by test thread only (app.attachment-migration.enabled is off in test profile)
+class AttachmentMigratorTest extends AbstractControllerTest {
+    private static final byte[] LOG = "ERROR build failed\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CSV = "id,title\n1,Data\n".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private AttachmentMigrator migrator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrate() throws Exception {
+        String logHash = hash(LOG);
+        String csvHash = hash(CSV);
+        //  file of flat content-addressed layout, old file with the same content and unique old file
+        Path flatBlob = Paths.get(FileUtil.getPath(AttachmentStore.BLOBS), csvHash);
+        write(flatBlob, CSV);
+        jdbcTemplate.update("INSERT INTO attachment_blob (hash, size, ref_count) VALUES (?, ?, 1)", csvHash, CSV.length);
+        long blobId = insert("tasks.csv", flatBlob, csvHash);
+        Path oldCsv = Paths.get(FileUtil.getPath("task"), "migrate_tasks.csv");
+        write(oldCsv, CSV);
+        long oldCsvId = insert("tasks.csv", oldCsv, null);
+        Path oldLog = Paths.get(FileUtil.getPath("task"), "migrate_build.log");
+        write(oldLog, LOG);
+        long oldLogId = insert("build.log", oldLog, null);
+
+        //  one batch for all test attachments
+        assertFalse(migrator.migrateBatch());
+
+        Path csvPath = AttachmentStore.getPath(csvHash);
+        Path logPath = AttachmentStore.getPath(logHash);
+        assertEquals(csvPath.toString(), getFileLink(blobId));
+        assertEquals(csvPath.toString(), getFileLink(oldCsvId));
+        assertEquals(logPath.toString(), getFileLink(oldLogId));
+        assertEquals(logHash, jdbcTemplate.queryForObject("SELECT content_hash FROM attachment WHERE id = ?", String.class, oldLogId));
+        assertEquals(2, getRefCount(csvHash));
+        assertEquals(1, getRefCount(logHash));
+        assertArrayEquals(CSV, Files.readAllBytes(csvPath));
+        assertArrayEquals(LOG, Files.readAllBytes(logPath));
+        assertFalse(Files.exists(flatBlob));
+        assertFalse(Files.exists(oldCsv));
+        assertFalse(Files.exists(oldLog));
+
+        Files.delete(csvPath);
+        Files.delete(logPath);
+    }
+
+    private long insert(String name, Path path, String hash) {
+        Long id = jdbcTemplate.queryForObject("""
+                        INSERT INTO attachment (name, file_link, object_id, object_type, user_id, date_time, content_hash)
+                        VALUES (?, ?, 1, 2, 1, now(), ?) RETURNING id""",
+                Long.class, name, path.toString(), hash);
+        return id == null ? 0 : id;
+    }
+
+    private String getFileLink(long id) {
+        return jdbcTemplate.queryForObject("SELECT file_link FROM attachment WHERE id = ?", String.class, id);
+    }
+
+    private int getRefCount(String hash) {
+        Integer refCount = jdbcTemplate.queryForObject("SELECT ref_count FROM attachment_blob WHERE hash = ?", Integer.class, hash);
+        return refCount == null ? 0 : refCount;
+    }
+
+    private static void write(Path path, byte[] content) throws Exception {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content);
+    }
+
+    private static String hash(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
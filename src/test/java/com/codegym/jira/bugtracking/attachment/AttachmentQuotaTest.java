@@ -0,0 +1,88 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.login.internal.web.UserTestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.codegym.jira.bugtracking.attachment.AttachmentController.REST_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {"app.attachment-quota.max-file-size=30B", "app.attachment-quota.user-quota=40B",
+        "app.attachment-quota.project-quota=1KB"})
+class AttachmentQuotaTest extends AbstractControllerTest {
+    private static final String STREAM_URL = REST_URL + "/stream";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void fileTooLarge() throws Exception {
+        long tmpFiles = countTmpFiles();
+        stream("build.bin", "ERROR build failed, see the log\n")
+                .andExpect(status().isPayloadTooLarge());
+        assertEquals(0, countAttachments());
+        assertEquals(tmpFiles, countTmpFiles());
+    }
+
+    //  20 + 20 bytes fit, 20 more exceed the user quota
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void userQuota() throws Exception {
+        stream("first.bin", "ERROR build failed 1")
+                .andExpect(status().isCreated());
+        perform(MockMvcRequestBuilders.multipart(REST_URL)
+                .file(new MockMultipartFile("file", "second.bin", MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                        "ERROR build failed 2".getBytes(StandardCharsets.UTF_8)))
+                .param("type", "TASK")
+                .param("objectId", "1"))
+                .andExpect(status().isCreated());
+        stream("third.bin", "ERROR build failed 3")
+                .andExpect(status().isPayloadTooLarge());
+        assertEquals(2, countAttachments());
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM attachment WHERE content_hash IS NOT NULL", Long.class);
+        for (Long id : ids) {
+            perform(MockMvcRequestBuilders.delete(REST_URL + "/" + id))
+                    .andExpect(status().isNoContent());
+        }
+    }
+
+    private ResultActions stream(String name, String content) throws Exception {
+        return perform(MockMvcRequestBuilders.post(STREAM_URL)
+                .param("type", "TASK")
+                .param("objectId", "1")
+                .param("name", name)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private int countAttachments() {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM attachment WHERE content_hash IS NOT NULL", Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    private static long countTmpFiles() throws Exception {
+        if (Files.notExists(Paths.get(FileUtil.getPath(AttachmentStore.TMP)))) {
+            return 0;
+        }
+        try (Stream<?> files = Files.list(Paths.get(FileUtil.getPath(AttachmentStore.TMP)))) {
+            return files.count();
+        }
+    }
+}
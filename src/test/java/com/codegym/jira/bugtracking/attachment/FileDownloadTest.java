@@ -0,0 +1,46 @@
+package com.codegym.jira.bugtracking.attachment;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpRange;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FileDownloadTest {
+    private static final long LENGTH = 1000;
+
+    @Test
+    void coalesce() {
+        long[][] regions = FileDownload.getRegions(HttpRange.parseRanges("bytes=500-600,0-9,10-19,550-700,-100"), LENGTH);
+        assertArrayEquals(new long[][]{{0, 19}, {500, 700}, {900, 999}}, regions);
+    }
+
+    @Test
+    void unsatisfiable() {
+        assertEquals(0, FileDownload.getRegions(HttpRange.parseRanges("bytes=1000-1100"), LENGTH).length);
+    }
+
+    @Test
+    void noRanges() {
+        assertNull(FileDownload.getRegions(List.of(), LENGTH));
+    }
+
+    //  the whole file instead of many small parts
+    @Test
+    void tooManyRegions() {
+        StringBuilder header = new StringBuilder("bytes=0-0");
+        for (int i = 1; i <= 16; i++) {
+            header.append(',').append(i * 10).append('-').append(i * 10);
+        }
+        assertNull(FileDownload.getRegions(HttpRange.parseRanges(header.toString()), LENGTH));
+    }
+
+    @Test
+    void overlappingWithinLimit() {
+        String header = "bytes=" + "0-99,".repeat(50) + "0-99";
+        assertArrayEquals(new long[][]{{0, 99}}, FileDownload.getRegions(HttpRange.parseRanges(header), LENGTH));
+    }
+}
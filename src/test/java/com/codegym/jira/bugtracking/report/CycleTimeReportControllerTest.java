@@ -0,0 +1,68 @@
+package com.codegym.jira.bugtracking.report;
+
+import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.bugtracking.task.TaskController;
+import com.codegym.jira.login.internal.web.UserTestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static com.codegym.jira.bugtracking.report.CycleTimeReportController.REST_URL;
+import static com.codegym.jira.bugtracking.task.TaskTestData.*;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CycleTimeReportControllerTest extends AbstractControllerTest {
+    private static final String TASK_ID = "taskId";
+    private static final String SPRINT_ID = "sprintId";
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getByTask() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL + "/by-task")
+                .param(TASK_ID, String.valueOf(TASK1_ID)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.started", is("2023-05-15T09:05:10")))
+                .andExpect(jsonPath("$.developed", nullValue()))
+                .andExpect(jsonPath("$.developmentMinutes", nullValue()));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.ADMIN_MAIL)
+    void getByTaskAfterStatusChange() throws Exception {
+        perform(MockMvcRequestBuilders.patch(TaskController.REST_URL + "/" + TASK2_ID + "/change-status")
+                .param("statusCode", READY_FOR_REVIEW))
+                .andExpect(status().isNoContent());
+
+        perform(MockMvcRequestBuilders.get(REST_URL + "/by-task")
+                .param(TASK_ID, String.valueOf(TASK2_ID)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.started", is("2023-05-15T12:05:10")))
+                .andExpect(jsonPath("$.developed", notNullValue()))
+                .andExpect(jsonPath("$.developmentMinutes", notNullValue()))
+                .andExpect(jsonPath("$.reviewMinutes", nullValue()));
+
+        perform(MockMvcRequestBuilders.get(REST_URL + "/by-sprint")
+                .param(SPRINT_ID, String.valueOf(SPRINT1_ID)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.development.count", is(1)))
+                .andExpect(jsonPath("$.development.p50", notNullValue()))
+                .andExpect(jsonPath("$.review.count", is(0)))
+                .andExpect(jsonPath("$.review.p50", nullValue()));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getByTaskNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL + "/by-task")
+                .param(TASK_ID, String.valueOf(NOT_FOUND)))
+                .andExpect(status().isNotFound());
+    }
+}
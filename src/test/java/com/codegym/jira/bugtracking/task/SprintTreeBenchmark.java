@@ -0,0 +1,45 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.AbstractControllerTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static com.codegym.jira.bugtracking.task.TaskTestData.PROJECT1_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//  mvn test -Dtest=SprintTreeBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SprintTreeBenchmark extends AbstractControllerTest {
+    private static final long SPRINT_ID = 2;
+    private static final int TASKS = 50_000;
+    private static final int ROOTS = 2_000;
+    private static final int ITERATIONS = 10;
+
+    @Autowired
+    private TaskTreeRepository treeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void getSprintTree() {
+        jdbcTemplate.update("""
+                INSERT INTO task (title, type_code, status_code, project_id, sprint_id, startpoint)
+                SELECT 'bench-' || i, 'task', 'todo', ?, ?, now() - i * interval '1 second'
+                FROM generate_series(1, ?) i""", PROJECT1_ID, SPRINT_ID, TASKS);
+        //  every non-root task gets random parent among previously inserted tasks of the sprint
+        jdbcTemplate.update("""
+                WITH bench AS (SELECT id, row_number() OVER (ORDER BY id) AS n FROM task WHERE sprint_id = ?)
+                UPDATE task t SET parent_id = (SELECT b.id FROM bench b WHERE b.n = 1 + floor(random() * (c.n - 1))::int)
+                FROM bench c WHERE t.id = c.id AND c.n > ?""", SPRINT_ID, ROOTS);
+        jdbcTemplate.execute("ANALYZE task");
+
+        treeRepository.getSprintTree(SPRINT_ID);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(TASKS, treeRepository.getSprintTree(SPRINT_ID).size());
+        }
+        System.out.printf("sprint tree of %d tasks: %.2f ms/op%n", TASKS, (System.nanoTime() - start) / 1e6 / ITERATIONS);
+    }
+}
@@ -0,0 +1,80 @@
+package com.codegym.jira.bugtracking.task;
+
+import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.bugtracking.task.to.TaskSelectionTo;
+import com.codegym.jira.login.internal.web.UserTestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Set;
+
+import static com.codegym.jira.bugtracking.task.TaskBulkController.REST_URL;
+import static com.codegym.jira.bugtracking.task.TaskTestData.*;
+import static com.codegym.jira.common.util.JsonUtil.writeValue;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TaskBulkControllerTest extends AbstractControllerTest {
+    private static final String STATUS_CODE = "statusCode";
+    private static final String TAG = "tag";
+    private static final String BULK_TAG = "bulk";
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    @WithUserDetails(value = UserTestData.ADMIN_MAIL)
+    void changeStatus() throws Exception {
+        TaskSelectionTo selection = new TaskSelectionTo(Set.of(TASK1_ID, TASK2_ID, TODO_TASK_ID, NOT_FOUND), null, null, null);
+        perform(MockMvcRequestBuilders.patch(REST_URL + "/change-status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(selection))
+                .param(STATUS_CODE, READY_FOR_REVIEW))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].taskId", is((int) TASK1_ID)))
+                .andExpect(jsonPath("$[0].success", is(true)))
+                .andExpect(jsonPath("$[1].success", is(true)))
+                .andExpect(jsonPath("$[2].taskId", is((int) TODO_TASK_ID)))
+                .andExpect(jsonPath("$[2].success", is(false)))
+                .andExpect(jsonPath("$[3].detail", is(TaskBulkService.NOT_FOUND)));
+        assertEquals(READY_FOR_REVIEW, taskRepository.getExisted(TASK1_ID).getStatusCode());
+        assertEquals(READY_FOR_REVIEW, taskRepository.getExisted(TASK2_ID).getStatusCode());
+        assertEquals(TODO, taskRepository.getExisted(TODO_TASK_ID).getStatusCode());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.ADMIN_MAIL)
+    void addTagByFilter() throws Exception {
+        TaskSelectionTo selection = new TaskSelectionTo(null, PROJECT1_ID, null, null);
+        perform(MockMvcRequestBuilders.post(REST_URL + "/tags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(selection))
+                .param(TAG, BULK_TAG))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+        assertTrue(taskRepository.getExisted(TASK1_ID).getTags().contains(BULK_TAG));
+        assertTrue(taskRepository.getExisted(TASK2_ID).getTags().contains(BULK_TAG));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.ADMIN_MAIL)
+    void emptySelection() throws Exception {
+        perform(MockMvcRequestBuilders.post(REST_URL + "/tags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(new TaskSelectionTo(null, null, null, null)))
+                .param(TAG, BULK_TAG))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+    }
+}
@@ -1,6 +1,7 @@
 package com.codegym.jira.bugtracking.task;
 
 import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.bugtracking.ClosureRepository;
 import com.codegym.jira.bugtracking.UserBelongRepository;
 import com.codegym.jira.bugtracking.task.to.ActivityTo;
 import com.codegym.jira.bugtracking.task.to.TaskToExt;
@@ -9,16 +10,23 @@ import com.codegym.jira.login.internal.web.UserTestData;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
 import static com.codegym.jira.bugtracking.ObjectType.TASK;
 import static com.codegym.jira.bugtracking.task.TaskController.REST_URL;
 import static com.codegym.jira.bugtracking.task.TaskService.CANNOT_ASSIGN;
 import static com.codegym.jira.bugtracking.task.TaskService.CANNOT_UN_ASSIGN;
 import static com.codegym.jira.bugtracking.task.TaskTestData.*;
 import static com.codegym.jira.common.util.JsonUtil.writeValue;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -39,6 +47,8 @@ class TaskControllerTest extends AbstractControllerTest {
     private static final String STATUS_CODE = "statusCode";
     private static final String USER_TYPE = "userType";
     private static final String ENABLED = "enabled";
+    private static final String SIZE = "size";
+    private static final String CURSOR = "cursor";
 
     @Autowired
     private TaskRepository taskRepository;
@@ -46,6 +56,12 @@ class TaskControllerTest extends AbstractControllerTest {
     private ActivityRepository activityRepository;
     @Autowired
     private UserBelongRepository userBelongRepository;
+    @Autowired
+    private TagIndex tagIndex;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ClosureRepository closureRepository;
 
     @Test
     @WithUserDetails(value = UserTestData.USER_MAIL)
@@ -61,6 +77,89 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andExpect(TASK_TO_FULL_MATCHER.contentJson(taskToFull));
     }
 
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getActivities() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/activities"))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(ACTIVITY_TO_MATCHER.contentJson(activityTosForTask1));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getActivitiesPage() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/activities")
+                .param(SIZE, "1"))
+                .andExpect(status().isOk())
+                .andExpect(ACTIVITY_TO_MATCHER.contentJson(List.of(activityTo3ForTask1)));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getCommentsTooLargePage() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/comments")
+                .param(SIZE, String.valueOf(TimelineService.MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getTimeline() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/timeline")
+                .param(SIZE, "2"))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.entries.length()", is(2)))
+                .andExpect(jsonPath("$.entries[0].id", is((int) activityTo3ForTask1.id())))
+                .andExpect(jsonPath("$.entries[0].kind", is("CHANGE")))
+                .andExpect(jsonPath("$.nextCursor", is("2023-05-15T12:25:10_CHANGE_" + activityTo2ForTask1.id())));
+
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/timeline")
+                .param(SIZE, "2")
+                .param(CURSOR, "2023-05-15T12:25:10_CHANGE_" + activityTo2ForTask1.id()))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.entries.length()", is(1)))
+                .andExpect(jsonPath("$.entries[0].id", is((int) activityTo1ForTask1.id())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getTimelineWithAttachment() throws Exception {
+        //  attachment with the same (updated, id) as an activity must not be lost on the page boundary
+        jdbcTemplate.update("INSERT INTO attachment (id, name, file_link, object_id, object_type, user_id, date_time) " +
+                "VALUES (?, 'timeline.txt', './attachments/timeline.txt', ?, 2, 1, '2023-05-15 12:25:10')", activityTo2ForTask1.id(), TASK1_ID);
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/timeline")
+                .param(SIZE, "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.entries[1].kind", is("CHANGE")))
+                .andExpect(jsonPath("$.nextCursor", is("2023-05-15T12:25:10_CHANGE_" + activityTo2ForTask1.id())));
+
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/timeline")
+                .param(SIZE, "2")
+                .param(CURSOR, "2023-05-15T12:25:10_CHANGE_" + activityTo2ForTask1.id()))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.entries.length()", is(2)))
+                .andExpect(jsonPath("$.entries[0].kind", is("ATTACHMENT")))
+                .andExpect(jsonPath("$.entries[0].attachment.name", is("timeline.txt")))
+                .andExpect(jsonPath("$.entries[0].attachment.fileLink").doesNotExist())
+                .andExpect(jsonPath("$.entries[1].id", is((int) activityTo1ForTask1.id())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getTimelineInvalidCursor() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/timeline")
+                .param(CURSOR, "wrong"))
+                .andDo(print())
+                .andExpect(status().isUnprocessableEntity());
+    }
+
     @Test
     void getUnAuth() throws Exception {
         perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID))
@@ -82,7 +181,24 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andExpect(status().isOk())
                 .andDo(print())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
-                .andExpect(TASK_TO_MATCHER.contentJson(taskTo2, taskTo1));
+                .andExpect(TASK_TO_MATCHER.contentJson(taskTo2, taskTo1))
+                .andExpect(jsonPath("$[0].depth", is(0)))
+                .andExpect(jsonPath("$[0].childCount", is(0)));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getAllBySprintAsTree() throws Exception {
+        Task subtask = taskRepository.getExisted(TODO_TASK_ID);
+        subtask.setParentId(READY_FOR_TEST_TASK_ID);
+        taskRepository.save(subtask);
+        perform(MockMvcRequestBuilders.get(TASKS_BY_SPRINT_REST_URL)
+                .param(SPRINT_ID, "5"))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$[*].id", contains(7, 6, 4, 3, 5)))
+                .andExpect(jsonPath("$[*].depth", contains(0, 0, 0, 0, 1)))
+                .andExpect(jsonPath("$[3].childCount", is(1)));
     }
 
     @Test
@@ -103,6 +219,139 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void findByTags() throws Exception {
+        tagIndex.rebuild();
+        addTag(TASK1_ID, "backend");
+        addTag(TASK2_ID, "backend");
+        addTag(TASK2_ID, "urgent");
+        perform(MockMvcRequestBuilders.get(REST_URL + "/tags/query")
+                .param(PROJECT_ID, String.valueOf(TaskTestData.PROJECT1_ID))
+                .param("all", "backend")
+                .param("none", "urgent"))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().json("[" + TASK1_ID + "]"));
+
+        perform(MockMvcRequestBuilders.get(REST_URL + "/tags/counts")
+                .param(PROJECT_ID, String.valueOf(TaskTestData.PROJECT1_ID)))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"backend\": 2, \"urgent\": 1}", true));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void setAndRemoveTags() throws Exception {
+        perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + TASK1_ID + "/tags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(Set.of("backend", "urgent"))))
+                .andExpect(status().isOk());
+        perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + TASK1_ID + "/tags")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(Set.of("backend", "frontend"))))
+                .andExpect(status().isOk());
+        perform(MockMvcRequestBuilders.delete(TASKS_REST_URL_SLASH + TASK1_ID + "/tags")
+                .param("tag", "frontend"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[\"backend\"]", true));
+        assertEquals(Set.of("backend"), taskRepository.findAllTags(TASK1_ID));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void addTagNotFound() throws Exception {
+        perform(MockMvcRequestBuilders.post(TASKS_REST_URL_SLASH + NOT_FOUND + "/tags")
+                .param("tag", "backend"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void addTagInvalid() throws Exception {
+        perform(MockMvcRequestBuilders.post(TASKS_REST_URL_SLASH + TASK1_ID + "/tags")
+                .param("tag", "a"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    private void addTag(long taskId, String tag) throws Exception {
+        perform(MockMvcRequestBuilders.post(TASKS_REST_URL_SLASH + taskId + "/tags")
+                .param("tag", tag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void search() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL + "/search")
+                .param("query", "tree")
+                .param(PROJECT_ID, String.valueOf(TaskTestData.PROJECT1_ID)))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is((int) TASK2_ID)))
+                .andExpect(jsonPath("$[0].titleHighlight", is("<mark>Trees</mark>")));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void searchEscapesHighlights() throws Exception {
+        jdbcTemplate.update("UPDATE task SET title = '<img src=x onerror=alert(1)>Trees' WHERE id = ?", TASK2_ID);
+        perform(MockMvcRequestBuilders.get(REST_URL + "/search")
+                .param("query", "tree")
+                .param(PROJECT_ID, String.valueOf(TaskTestData.PROJECT1_ID)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].titleHighlight", is("&lt;img src=x onerror=alert(1)&gt;<mark>Trees</mark>")));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void searchWithStatusFilter() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL + "/search")
+                .param("query", "tree")
+                .param(STATUS_CODE, DONE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void searchBlankQuery() throws Exception {
+        perform(MockMvcRequestBuilders.get(REST_URL + "/search")
+                .param("query", " "))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void exportNdjson() throws Exception {
+        String content = perform(MockMvcRequestBuilders.get(REST_URL + "/export")
+                .param(PROJECT_ID, String.valueOf(TaskTestData.PROJECT1_ID)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(TaskController.NDJSON_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = content.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":1,"));
+        assertTrue(lines[0].contains("\"priorityCode\":\"normal\""));
+        assertTrue(lines[1].contains("\"description\":\"Trees desc\""));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void exportCsv() throws Exception {
+        String content = perform(MockMvcRequestBuilders.get(REST_URL + "/export")
+                .param(PROJECT_ID, String.valueOf(TaskTestData.PROJECT1_ID))
+                .param("format", "CSV"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(TaskController.CSV_VALUE))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = content.split("\r\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("id,code,title,"));
+        assertTrue(lines[1].startsWith("1,epic-1,Data,epic,in_progress,normal,"));
+    }
+
     @Test
     @WithUserDetails(value = UserTestData.USER_MAIL)
     void updateTask() throws Exception {
@@ -114,6 +363,7 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andExpect(status().isNoContent());
 
         Task updated = new Task(updatedTo.getId(), updatedTo.getTitle(), updatedTo.getTypeCode(), updatedTo.getStatusCode(), updatedTo.getParentId(), updatedTo.getProjectId(), updatedTo.getSprintId());
+        withLatestState(updated, updatedTo.getDescription(), updatedTo.getPriorityCode(), updatedTo.getEstimate());
         TASK_MATCHER.assertMatch(taskRepository.getExisted(TASK2_ID), updated);
         get(TASK2_ID, taskToFull2);
     }
@@ -132,6 +382,97 @@ class TaskControllerTest extends AbstractControllerTest {
         assertEquals(activitiesCount, activityRepository.findAllByTaskIdOrderByUpdatedDesc(TASK2_ID).size());
     }
 
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void updateTaskParent() throws Exception {
+        TaskToExt subtaskTo = new TaskToExt(TASK2_ID, taskTo2.getCode(), taskTo2.getTitle(), "Trees desc", taskTo2.getTypeCode(),
+                taskTo2.getStatusCode(), "normal", null, 4, TASK1_ID, taskTo2.getProjectId(), taskTo2.getSprintId());
+        perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + TASK2_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(subtaskTo)))
+                .andExpect(status().isNoContent());
+
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK2_ID + "/ancestors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) TASK1_ID)));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/descendants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) TASK2_ID)));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/descendants/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void updateTaskParentCycle() throws Exception {
+        TaskToExt selfParentTo = new TaskToExt(TASK2_ID, taskTo2.getCode(), taskTo2.getTitle(), "Trees desc", taskTo2.getTypeCode(),
+                taskTo2.getStatusCode(), "normal", null, 4, TASK2_ID, taskTo2.getProjectId(), taskTo2.getSprintId());
+        perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + TASK2_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(selfParentTo)))
+                .andDo(print())
+                .andExpect(status().isConflict());
+        assertNull(taskRepository.getExisted(TASK2_ID).getParentId());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getAncestors() throws Exception {
+        makeChain();
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TODO_TASK_ID + "/ancestors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) TASK2_ID, (int) TASK1_ID)));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/ancestors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getDescendants() throws Exception {
+        makeChain();
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/descendants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) TASK2_ID, (int) TODO_TASK_ID)));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TODO_TASK_ID + "/descendants"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void countDescendants() throws Exception {
+        makeChain();
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/descendants/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("2"));
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TODO_TASK_ID + "/descendants/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0"));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getHierarchyNotFound() throws Exception {
+        for (String path : List.of("/ancestors", "/descendants", "/descendants/count")) {
+            perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + NOT_FOUND + path))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
+    @Test
+    void getAncestorsUnauthorized() throws Exception {
+        perform(MockMvcRequestBuilders.get(TASKS_REST_URL_SLASH + TASK1_ID + "/ancestors"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    //  task1 <- task2 <- task5
+    private void makeChain() {
+        closureRepository.move(TASK, TASK2_ID, null, TASK1_ID);
+        closureRepository.move(TASK, TODO_TASK_ID, null, TASK2_ID);
+    }
+
     @Test
     void updateTaskUnauthorized() throws Exception {
         perform(MockMvcRequestBuilders.put(TASKS_REST_URL_SLASH + TASK2_ID)
@@ -224,6 +565,31 @@ class TaskControllerTest extends AbstractControllerTest {
         updateTaskIfRequired(updated.getTaskId(), updated.getStatusCode(), updated.getTypeCode());
     }
 
+    //  updated activity becomes the latest one: task state is taken from it
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void updateActivityRefreshesTask() throws Exception {
+        ActivityTo updatedTo = getUpdatedActivityTo();
+        perform(MockMvcRequestBuilders.put(ACTIVITIES_REST_URL_SLASH + ACTIVITY1_ID)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(updatedTo)))
+                .andExpect(status().isNoContent());
+
+        Task task = taskRepository.getExisted(TASK1_ID);
+        assertNull(task.getDescription());
+        assertEquals("low", task.getPriorityCode());
+        assertEquals(3, task.getEstimate());
+        assertEquals(activityRepository.getExisted(ACTIVITY1_ID).getUpdated(), task.getUpdated());
+    }
+
+    private Task withLatestState(Task task, String description, String priorityCode, Integer estimate) {
+        task.setDescription(description);
+        task.setPriorityCode(priorityCode);
+        task.setEstimate(estimate);
+        task.setUpdated(activityRepository.findAllByTaskIdOrderByUpdatedDesc(task.id()).get(0).getUpdated());
+        return task;
+    }
+
     private void updateTaskIfRequired(long taskId, String activityStatus, String activityType) {
         if (activityStatus != null || activityType != null) {
             Task task = taskRepository.getExisted(taskId);
@@ -362,6 +728,7 @@ class TaskControllerTest extends AbstractControllerTest {
         Task created = TASK_MATCHER.readFromJson(action);
         long newId = created.id();
         Task newTask = new Task(newId, newTo.getTitle(), newTo.getTypeCode(), newTo.getStatusCode(), newTo.getParentId(), newTo.getProjectId(), newTo.getSprintId());
+        withLatestState(newTask, newTo.getDescription(), newTo.getPriorityCode(), newTo.getEstimate());
         TASK_MATCHER.assertMatch(created, newTask);
         TASK_MATCHER.assertMatch(taskRepository.getExisted(newId), newTask);
     }
@@ -412,6 +779,7 @@ class TaskControllerTest extends AbstractControllerTest {
         ACTIVITY_MATCHER.assertMatch(created, newActivity);
         ACTIVITY_MATCHER.assertMatch(activityRepository.getExisted(newId), newActivity);
         updateTaskIfRequired(created.getTaskId(), created.getStatusCode(), created.getTypeCode());
+        assertEquals(newTo.getEstimate(), taskRepository.getExisted(TASK1_ID).getEstimate());
     }
 
     @Test
@@ -457,6 +825,20 @@ class TaskControllerTest extends AbstractControllerTest {
                 .andDo(print())
                 .andExpect(status().isNoContent());
         assertFalse(activityRepository.existsById(ACTIVITY1_ID + 1));
+        assertEquals("low", taskRepository.getExisted(TASK1_ID).getPriorityCode());
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void deleteLatestActivity() throws Exception {
+        perform(MockMvcRequestBuilders.delete(ACTIVITIES_REST_URL_SLASH + (ACTIVITY1_ID + 2)))
+                .andExpect(status().isNoContent());
+
+        Task task = taskRepository.getExisted(TASK1_ID);
+        assertNull(task.getDescription());
+        assertEquals("normal", task.getPriorityCode());
+        assertEquals(3, task.getEstimate());
+        assertEquals(LocalDateTime.of(2023, 5, 15, 12, 25, 10), task.getUpdated());
     }
 
     @Test
@@ -17,6 +17,7 @@ public class TaskTestData {
     public static final MatcherFactory.Matcher<Task> TASK_MATCHER = MatcherFactory.usingIgnoringFieldsComparator(Task.class, "id", "startpoint", "endpoint", "activities", "project", "sprint", "parent", "tags");
     public static final MatcherFactory.Matcher<TaskTo> TASK_TO_MATCHER = MatcherFactory.usingIgnoringFieldsComparator(TaskTo.class, "id", "startpoint", "endpoint");
     public static final MatcherFactory.Matcher<TaskToFull> TASK_TO_FULL_MATCHER = MatcherFactory.usingIgnoringFieldsComparator(TaskToFull.class, "id", "updated", "activityTos.id");
+    public static final MatcherFactory.Matcher<ActivityTo> ACTIVITY_TO_MATCHER = MatcherFactory.usingIgnoringFieldsComparator(ActivityTo.class, "updated", "author");
     public static final MatcherFactory.Matcher<Activity> ACTIVITY_MATCHER = MatcherFactory.usingIgnoringFieldsComparator(Activity.class, "title", "updated", "author");
     public static final MatcherFactory.Matcher<UserBelong> USER_BELONG_MATCHER = MatcherFactory.usingIgnoringFieldsComparator(UserBelong.class, "id", "startpoint", "endpoint");
 
@@ -58,11 +59,6 @@ public class TaskTestData {
     public static final UserBelong userTask2Assignment1 = new UserBelong(2L, TASK, UserTestData.USER_ID, "task_developer");
     public static final UserBelong userTask2Assignment2 = new UserBelong(2L, TASK, UserTestData.USER_ID, "task_tester");
 
-    static {
-        taskToFull1.setActivityTos(activityTosForTask1);
-        taskToFull2.setActivityTos(activityTosForTask2);
-    }
-
     public static TaskToExt getNewTaskTo() {
         return new TaskToExt(null, "epic-1", "Data New", "task NEW", "epic", "in_progress", "low", null, 3, null, PROJECT1_ID, SPRINT1_ID);
     }
@@ -0,0 +1,70 @@
+package com.codegym.jira.bugtracking.tree;
+
+import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.login.internal.web.UserTestData;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TreeRestControllerTest extends AbstractControllerTest {
+    private static final String NODES_REST_URL = TreeRestController.REST_URL + "/nodes";
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getRootNodesWithDepth() throws Exception {
+        perform(MockMvcRequestBuilders.get(NODES_REST_URL)
+                .param("depth", "2"))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.nodes[*].key", contains("PROJECT-1")))
+                .andExpect(jsonPath("$.nodes[0].childCount", is(6)))
+                .andExpect(jsonPath("$.nodes[0].lazy", is(false)))
+                .andExpect(jsonPath("$.nodes[0].children[*].key",
+                        contains("PROJECT-2", "SPRINT-4", "SPRINT-3", "SPRINT-2", "SPRINT-1", "BACKLOG-1")))
+                .andExpect(jsonPath("$.nodes[0].children[4].childCount", is(2)))
+                .andExpect(jsonPath("$.nodes[0].children[4].lazy", is(true)))
+                .andExpect(jsonPath("$.nodes[0].children[5].id", is(0)))
+                .andExpect(jsonPath("$.nodes[0].children[5].lazy", is(false)))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getChildNodesPaged() throws Exception {
+        String url = NODES_REST_URL + "/SPRINT-5/children";
+        perform(MockMvcRequestBuilders.get(url)
+                .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nodes[*].key", contains("TASK-7", "TASK-6")))
+                .andExpect(jsonPath("$.nextCursor", is("0_6")));
+        perform(MockMvcRequestBuilders.get(url)
+                .param("size", "2")
+                .param("cursor", "0_4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nodes[*].key", contains("TASK-3")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    @WithUserDetails(value = UserTestData.USER_MAIL)
+    void getChildNodesInvalid() throws Exception {
+        perform(MockMvcRequestBuilders.get(NODES_REST_URL + "/ROOT-0/children"))
+                .andExpect(status().isUnprocessableEntity());
+        perform(MockMvcRequestBuilders.get(NODES_REST_URL + "/SPRINT-5/children")
+                .param("depth", "" + (TreeService.MAX_DEPTH + 1)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void getRootNodesUnauthorized() throws Exception {
+        perform(MockMvcRequestBuilders.get(NODES_REST_URL))
+                .andExpect(status().isUnauthorized());
+    }
+}
@@ -0,0 +1,77 @@
+package com.codegym.jira.bugtracking.tree;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TreeServiceTest {
+    private static final int SIZE = TreeService.MAX_PAGE_SIZE;
+
+    //  every node has a full page of children: without the budget depth 3 would load SIZE^3 nodes
+    private final TreeService service = new TreeService(new FullTreeRepository());
+
+    @Test
+    void hydrationStopsAtMaxNodes() {
+        List<TreeNodeTo> roots = service.getRoots(null, TreeService.MAX_DEPTH, SIZE).getNodes();
+        assertEquals(TreeService.MAX_NODES, count(roots));
+        TreeNodeTo lastFilled = roots.get((TreeService.MAX_NODES - SIZE) / SIZE - 1);
+        assertEquals(SIZE, lastFilled.getChildren().size());
+        assertTrue(lastFilled.getChildren().stream().allMatch(TreeNodeTo::isLazy));
+        assertTrue(roots.get(roots.size() - 1).isLazy());
+    }
+
+    @Test
+    void partialPageHasCursor() {
+        List<TreeNodeTo> roots = service.getRoots(null, 3, 30).getNodes();
+        //  30 roots, 900 on the second level, 35 full pages of 30 + 20 children of the 36th second level node
+        assertEquals(TreeService.MAX_NODES, count(roots));
+        TreeNodeTo partial = roots.get(1).getChildren().get(5);
+        assertEquals(20, partial.getChildren().size());
+        assertNotNull(partial.getCursor());
+        assertTrue(roots.get(1).getChildren().get(6).isLazy());
+    }
+
+    private static int count(List<TreeNodeTo> nodes) {
+        int count = nodes.size();
+        for (TreeNodeTo node : nodes) {
+            if (node.getChildren() != null) {
+                count += count(node.getChildren());
+            }
+        }
+        return count;
+    }
+
+    private static class FullTreeRepository extends TreeRepository {
+        FullTreeRepository() {
+            super(null);
+        }
+
+        @Override
+        List<Child> findChildren(NodeKind kind, Collection<Long> parentIds, @Nullable Child after, int limit) {
+            List<Child> rows = new ArrayList<>();
+            for (Long parentId : parentIds) {
+                for (int i = 0; i < Math.min(limit, SIZE); i++) {
+                    long id = parentId * 1000 + i + 1;
+                    rows.add(new Child(parentId, kind == NodeKind.ROOT ? NodeKind.PROJECT : NodeKind.TASK, id, "node-" + id, 0));
+                }
+            }
+            return rows;
+        }
+
+        @Override
+        Map<Long, Integer> countChildren(NodeKind kind, Collection<Long> ids) {
+            Map<Long, Integer> counts = new HashMap<>();
+            ids.forEach(id -> counts.put(id, SIZE));
+            return counts;
+        }
+    }
+}
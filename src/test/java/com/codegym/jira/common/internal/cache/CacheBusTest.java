@@ -0,0 +1,111 @@
+package com.codegym.jira.common.internal.cache;
+
+import com.codegym.jira.CodegymJiraApplication;
+import com.codegym.jira.login.internal.UserRepository;
+import com.codegym.jira.ref.RefType;
+import com.codegym.jira.ref.ReferenceService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static com.codegym.jira.login.internal.web.UserTestData.USER_MAIL;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application nodes over the test database in one JVM. Static state (ReferenceService registry, TaskWorkflow)
+ * is shared by the nodes, so assertions use per-context beans only: caches and probes subscribed to the node bus.
+ */
+class CacheBusTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private static ConfigurableApplicationContext node1;
+    private static ConfigurableApplicationContext node2;
+
+    @BeforeAll
+    static void startNodes() {
+        node1 = startNode();
+        node2 = startNode("--spring.liquibase.enabled=false", "--spring.sql.init.mode=never");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        node2.close();
+        node1.close();
+    }
+
+    //  command line args override profile properties (test profile switches cache off)
+    private static ConfigurableApplicationContext startNode(String... args) {
+        return new SpringApplicationBuilder(CodegymJiraApplication.class)
+                .profiles("test")
+                .run(Stream.concat(Stream.of("--server.port=0", "--spring.cache.type=caffeine"), Stream.of(args))
+                        .toArray(String[]::new));
+    }
+
+    @Test
+    void evictOnOtherNode() throws InterruptedException {
+        node2.getBean(UserRepository.class).findByEmailIgnoreCase(USER_MAIL);
+        Cache cache2 = node2.getBean(CacheManager.class).getCache("users");
+        assertNotNull(cache2.get(USER_MAIL));
+
+        node1.getBean(CacheManager.class).getCache("users").evict(USER_MAIL);
+        await(() -> cache2.get(USER_MAIL) == null);
+    }
+
+    @Test
+    void refsChangeReachesOtherNode() throws InterruptedException {
+        List<Set<String>> received = subscribe(node2, "refs");
+        node1.getBean(ReferenceService.class).updateRefs(RefType.TASK);
+        await(() -> !received.isEmpty());
+        assertEquals(Set.of(RefType.TASK.name()), received.get(0));
+    }
+
+    @Test
+    void coalesceBurst() throws InterruptedException {
+        List<Set<String>> received = subscribe(node2, "test");
+        CacheBus bus1 = node1.getBean(CacheBus.class);
+        bus1.publish("test", "a");
+        bus1.publish("test", "b");
+        bus1.publish("test", "a");
+        await(() -> !received.isEmpty());
+        assertEquals(Set.of("a", "b"), received.get(0));
+
+        bus1.publish("test", CacheBus.ALL);
+        await(() -> received.size() == 2);
+        assertNull(received.get(1));
+    }
+
+    //  keys received by the node bus, null for all keys
+    private static List<Set<String>> subscribe(ConfigurableApplicationContext node, String topic) {
+        List<Set<String>> received = new CopyOnWriteArrayList<>();
+        node.getBean(CacheBus.class).subscribe(topic, new CacheBus.Subscriber() {
+            @Override
+            public void invalidate(@Nullable Set<String> keys) {
+                received.add(keys);
+            }
+
+            @Override
+            public void resync() {
+            }
+        });
+        return received;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition is not met in " + TIMEOUT_MILLIS + " ms");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.codegym.jira.common.internal.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//  cached pool stands in for thread-per-task virtual executor
+class BoundedExecutorTest {
+    private final ExecutorService threadPerTask = Executors.newCachedThreadPool();
+    private final AtomicInteger callerRuns = new AtomicInteger();
+    private final BoundedExecutor executor = new BoundedExecutor(threadPerTask, 2, 1, callerRuns::incrementAndGet);
+
+    @AfterEach
+    void shutdown() {
+        threadPerTask.shutdownNow();
+    }
+
+    @Test
+    void limits() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Runnable task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+        };
+        for (int i = 0; i < 3; i++) {
+            executor.execute(task);
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.getQueueSize());
+
+        //  over running and queue limits: runs in the caller thread
+        Thread caller = Thread.currentThread();
+        executor.execute(() -> assertSame(caller, Thread.currentThread()));
+        assertEquals(1, callerRuns.get());
+
+        release.countDown();
+        threadPerTask.shutdown();
+        assertTrue(threadPerTask.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        assertEquals(0, executor.getQueueSize());
+    }
+}
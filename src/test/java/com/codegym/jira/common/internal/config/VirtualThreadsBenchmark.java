@@ -0,0 +1,150 @@
+package com.codegym.jira.common.internal.config;
+
+import com.codegym.jira.CodegymJiraApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.codegym.jira.login.internal.web.UserTestData.USER_MAIL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Slow database: every JDBC statement of the running application blocks {@link #DB_MILLIS} longer.
+ * A node with real Tomcat, security, Hikari pool and repositories gets {@link #REQUESTS} authenticated
+ * {@code GET /api/tasks/1} at once; throughput and p99 are compared for platform and virtual threads mode.
+ * Both modes share the database pool, so it shows how far request threads matter when connections are the limit.
+ * <p>
+ * mvn test -Dtest=VirtualThreadsBenchmark -Dbenchmark=true (needs the test database, virtual threads part needs Java 21)
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadsBenchmark {
+    private static final int REQUESTS = 2_000;
+    private static final int WARM_UP = 100;
+    private static final long DB_MILLIS = 20;
+    private static final String AUTHORIZATION = "Basic " +
+            Base64.getEncoder().encodeToString((USER_MAIL + ":password").getBytes(StandardCharsets.UTF_8));
+
+    //  off during startup and database init
+    private static volatile boolean slow;
+
+    @Test
+    void platformThreads() throws Exception {
+        run(false);
+    }
+
+    @Test
+    void virtualThreads() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "Java 21+ required");
+        run(true);
+    }
+
+    private static void run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext node = new SpringApplicationBuilder(CodegymJiraApplication.class, SlowDatabase.class)
+                .profiles("test")
+                .run("--server.port=0", "--app.virtual-threads=" + virtualThreads)) {
+            URI uri = URI.create("http://localhost:" + node.getEnvironment().getProperty("local.server.port") + "/api/tasks/1");
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", AUTHORIZATION).GET().build();
+            for (int i = 0; i < WARM_UP; i++) {
+                assertEquals(200, client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+            }
+            slow = true;
+            try {
+                long[] latencies = new long[REQUESTS];
+                AtomicInteger failed = new AtomicInteger();
+                CompletableFuture<?>[] responses = new CompletableFuture<?>[REQUESTS];
+                long start = System.nanoTime();
+                for (int i = 0; i < REQUESTS; i++) {
+                    int idx = i;
+                    long submitted = System.nanoTime();
+                    responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+                        latencies[idx] = System.nanoTime() - submitted;
+                        if (e != null || response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                        }
+                    });
+                }
+                CompletableFuture.allOf(responses).exceptionally(e -> null).join();
+                long elapsed = System.nanoTime() - start;
+                Arrays.sort(latencies);
+                System.out.printf("%s threads, db +%d ms/statement: %.0f req/s, p99 %.1f ms, failed %d%n",
+                        virtualThreads ? "virtual" : "platform", DB_MILLIS, REQUESTS / (elapsed / 1e9),
+                        latencies[(int) (REQUESTS * 0.99) - 1] / 1e6, failed.get());
+            } finally {
+                slow = false;
+            }
+        }
+    }
+
+    //  not component-scanned, added to the benchmark node only
+    @TestConfiguration(proxyBeanMethods = false)
+    static class SlowDatabase {
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof SlowDataSource) ? new SlowDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    private static class SlowDataSource extends DelegatingDataSource {
+        SlowDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        @NonNull
+        public Connection getConnection() throws SQLException {
+            return proxy(Connection.class, super.getConnection());
+        }
+
+        @Override
+        @NonNull
+        public Connection getConnection(@NonNull String username, @NonNull String password) throws SQLException {
+            return proxy(Connection.class, super.getConnection(username, password));
+        }
+
+        //  statements created by the connection are proxied too, their execute* methods are slowed down
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (slow && target instanceof Statement && method.getName().startsWith("execute")) {
+                    Thread.sleep(DB_MILLIS);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    return result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType()) ?
+                            proxy((Class<Object>) method.getReturnType(), result) : result;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+    }
+}
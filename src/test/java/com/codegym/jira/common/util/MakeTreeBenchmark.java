@@ -0,0 +1,48 @@
+package com.codegym.jira.common.util;
+
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.bugtracking.tree.NodeTo;
+import com.codegym.jira.bugtracking.tree.TreeNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//  mvn test -Dtest=MakeTreeBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MakeTreeBenchmark {
+    private static final int TASKS = 50_000;
+    private static final int ROOTS = 2_000;
+    private static final int WARMUP = 20;
+    private static final int ITERATIONS = 50;
+
+    @Test
+    void makeTree() {
+        List<NodeTo> nodes = generate();
+        for (int i = 0; i < WARMUP; i++) {
+            Util.makeTree(nodes, TreeNode::new);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            assertEquals(ROOTS, Util.makeTree(nodes, TreeNode::new).size());
+        }
+        System.out.printf("makeTree of %d nodes: %.2f ms/op%n", TASKS, (System.nanoTime() - start) / 1e6 / ITERATIONS);
+    }
+
+    //  random forest: every non-root node has a random parent among previous nodes, shuffled
+    private static List<NodeTo> generate() {
+        Random random = new Random(42);
+        List<NodeTo> nodes = new ArrayList<>(TASKS);
+        for (int i = 1; i <= TASKS; i++) {
+            Long parentId = i <= ROOTS ? null : (long) (1 + random.nextInt(i - 1));
+            nodes.add(new NodeTo(i, "task-" + i, ObjectType.TASK, parentId));
+        }
+        Collections.shuffle(nodes, random);
+        return nodes;
+    }
+}
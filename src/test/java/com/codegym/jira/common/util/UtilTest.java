@@ -1,24 +1,33 @@
 package com.codegym.jira.common.util;
 
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.bugtracking.tree.NodeTo;
+import com.codegym.jira.bugtracking.tree.TreeNode;
 import org.junit.jupiter.api.Test;
 
-// TODO
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class UtilTest {
 
     @Test
     void makeTree() {
-/*
-        NodeTo a = new NodeTo(1L, "A", true, "A", "A", "A", null);
-        NodeTo b = new NodeTo(1L, "B", true, "B", "B", "B", a);
-        NodeTo c = new NodeTo(1L, "C", true, "C", "C", "C", a);
-        NodeTo d = new NodeTo(1L, "D", true, "D", "D", "D", b);
-        NodeTo e = new NodeTo(1L, "E", true, "E", "E", "E", d);
-        List<NodeTo> projects = List.of(e, b, c, d, a);
+        NodeTo a = new NodeTo(1L, "A", ObjectType.TASK, null);
+        NodeTo b = new NodeTo(2L, "B", ObjectType.TASK, 1L);
+        NodeTo c = new NodeTo(3L, "C", ObjectType.TASK, 1L);
+        NodeTo d = new NodeTo(4L, "D", ObjectType.TASK, 2L);
+        NodeTo e = new NodeTo(5L, "E", ObjectType.TASK, 4L);
+        NodeTo orphan = new NodeTo(6L, "F", ObjectType.TASK, 100L);
+        NodeTo g = new NodeTo(7L, "G", ObjectType.TASK, null);
+
+        List<TreeNode> roots = Util.makeTree(List.of(e, orphan, b, c, d, a, g), TreeNode::new);
 
-        List<TreeNode> nodes = Util.makeTree(projects);
-        for (TreeNode treeNode : nodes) {
-            System.out.println(treeNode);
-        }
-*/
+        assertEquals(List.of("A", "G", "F"), roots.stream().map(TreeNode::code).toList());
+        TreeNode rootA = roots.get(0);
+        assertEquals(List.of("B", "C"), rootA.subNodes().stream().map(TreeNode::code).toList());
+        TreeNode nodeD = rootA.subNodes().get(0).subNodes().get(0);
+        assertEquals("D", nodeD.code());
+        assertEquals("E", nodeD.subNodes().get(0).code());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,157 @@
+package com.codegym.jira.mail.internal;
+
+import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.common.internal.config.AppProperties;
+import com.codegym.jira.login.User;
+import com.codegym.jira.login.internal.UserRepository;
+import com.codegym.jira.mail.MailService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.codegym.jira.login.internal.web.UserTestData.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+//  outbox is dispatched by test thread only (app.mail-outbox.dispatch is off in test profile)
+class MailDispatcherTest extends AbstractControllerTest {
+    private static final String TEMPLATE = "email-confirmation.html";
+    private static final SmtpStub smtp = SmtpStub.start();
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private MailDispatcher dispatcher;
+
+    @Autowired
+    private MailCaseRepository mailCaseRepository;
+
+    @Autowired
+    private MailOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "127.0.0.1");
+        registry.add("spring.mail.port", smtp::getPort);
+        registry.add("spring.mail.username", () -> "jira@localhost");
+        registry.add("spring.mail.password", () -> "");
+        registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+        registry.add("app.mail-outbox.max-attempts", () -> "2");
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        smtp.close();
+    }
+
+    @BeforeEach
+    void resetSmtp() {
+        smtp.reset();
+    }
+
+    @Test
+    void sendBatchOverOneConnection() throws InterruptedException {
+        send(USER_MAIL, ADMIN_MAIL, GUEST_MAIL);
+        assertEquals(3, countOutbox());
+        assertTrue(smtp.getMessages().isEmpty());
+
+        dispatcher.dispatch();
+        assertEquals(0, countOutbox());
+        assertEquals(1, smtp.getConnections());
+        assertEquals(List.of(USER_MAIL, ADMIN_MAIL, GUEST_MAIL),
+                smtp.getMessages().stream().flatMap(message -> message.recipients().stream()).toList());
+        assertTrue(smtp.getMessages().get(0).data().contains("Subject: CodegymJira - email confirmation"));
+    }
+
+    @Test
+    void retryAndDeadLetter() throws InterruptedException {
+        smtp.reject(GUEST_MAIL);
+        send(USER_MAIL, GUEST_MAIL);
+
+        dispatcher.dispatch();
+        assertEquals(1, smtp.getMessages().size());
+        Map<String, Object> failed = jdbcTemplate.queryForMap("SELECT email, attempts, next_attempt > now() AS delayed FROM mail_outbox");
+        assertEquals(Map.of("email", GUEST_MAIL, "attempts", 1, "delayed", true), failed);
+
+        //  backoff is not expired
+        dispatcher.dispatch();
+        assertEquals(1, smtp.getConnections());
+
+        jdbcTemplate.update("UPDATE mail_outbox SET next_attempt = now()");
+        dispatcher.dispatch();
+        assertEquals(0, countOutbox());
+        assertEquals(1, smtp.getMessages().size());
+        assertTrue(mailCaseRepository.findAll().stream()
+                .anyMatch(mailCase -> GUEST_MAIL.equals(mailCase.getEmail()) && TEMPLATE.equals(mailCase.getTemplate())));
+    }
+
+    @Test
+    void singleBeforeBulk() throws InterruptedException {
+        outboxRepository.add(ADMIN_MAIL, "Admin", TEMPLATE, "Announcement", "<p>Announcement</p>", true);
+        outboxRepository.add(GUEST_MAIL, "Guest", TEMPLATE, "Announcement", "<p>Announcement</p>", true);
+        send(USER_MAIL);
+
+        dispatcher.dispatch();
+        assertEquals(List.of(USER_MAIL, ADMIN_MAIL, GUEST_MAIL),
+                smtp.getMessages().stream().flatMap(message -> message.recipients().stream()).toList());
+    }
+
+    @Test
+    void groupInCallerTransaction() {
+        Set<User> users = Set.of(userRepository.getExisted(USER_ID), userRepository.getExisted(ADMIN_ID));
+        Map<String, Object> params = Map.of("confirmationUrl", "http://localhost/confirm");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            mailService.sendToGroup(TEMPLATE, users, params);
+            status.setRollbackOnly();
+        });
+        assertEquals(0, countOutbox());
+
+        transactionTemplate.executeWithoutResult(status -> mailService.sendToGroup(TEMPLATE, users, params));
+        assertEquals(2, countOutbox());
+    }
+
+    @Test
+    void backoff() {
+        AppProperties.MailOutboxProps props = new AppProperties.MailOutboxProps();
+        assertEquals(Duration.ofSeconds(30), MailDispatcher.getBackoff(0, props));
+        assertEquals(Duration.ofMinutes(2), MailDispatcher.getBackoff(2, props));
+        assertEquals(Duration.ofHours(1), MailDispatcher.getBackoff(10, props));
+        assertEquals(Duration.ofHours(1), MailDispatcher.getBackoff(100, props));
+    }
+
+    private void send(String... emails) {
+        User user = userRepository.getExisted(USER_ID);
+        for (String email : emails) {
+            assertTrue(MailService.isOk(mailService.send(email, user.getFirstName(), TEMPLATE,
+                    Map.of("user", user, "confirmationUrl", "http://localhost/confirm"))));
+        }
+    }
+
+    private int countOutbox() {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM mail_outbox", Integer.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,48 @@
+package com.codegym.jira.mail.internal;
+
+import com.codegym.jira.common.internal.config.AppProperties;
+import com.codegym.jira.common.internal.config.ThymeleafConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailRendererTest {
+    private static final String TEMPLATE = "email-confirmation.html";
+
+    private final MailRenderer renderer = new MailRenderer(new ThymeleafConfig(appProperties()).thymeleafTemplateEngine());
+
+    private static AppProperties appProperties() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setTemplatesUpdateCache(Duration.ofMinutes(1));
+        return appProperties;
+    }
+
+    @Test
+    void getContent() {
+        String content = renderer.getContent(TEMPLATE, Map.of("user", Map.of("firstName", "Ann"), "confirmationUrl", "http://localhost/confirm"));
+        assertTrue(content.contains("Hello, Ann."));
+        assertTrue(content.contains("href=\"http://localhost/confirm\""));
+    }
+
+    @Test
+    void getDigestContent() {
+        DigestItem changed = new DigestItem(1, "Data", "status_changed", "done", "Admin", null, LocalDateTime.now());
+        DigestItem assigned = new DigestItem(1, "Data", "assigned", "task_developer", "Admin", "Ann", LocalDateTime.now());
+        String content = renderer.getContent(NotificationDigest.TEMPLATE,
+                Map.of("user", Map.of("firstName", "Ann"), "items", List.of(changed, assigned), "hostUrl", "http://localhost"));
+        assertTrue(content.contains("href=\"http://localhost/ui/tasks/1\""));
+        assertTrue(content.contains("Admin changed status to done"));
+        assertTrue(content.contains("Admin assigned Ann as task_developer"));
+    }
+
+    //  only title is rendered: recipient parameters are not needed
+    @Test
+    void getSubject() {
+        assertEquals("CodegymJira - email confirmation", renderer.getSubject(TEMPLATE, Map.of()));
+    }
+}
@@ -0,0 +1,111 @@
+package com.codegym.jira.mail.internal;
+
+import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.bugtracking.task.TaskNotificationEvent;
+import com.codegym.jira.profile.internal.NotificationRecipients;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static com.codegym.jira.bugtracking.task.TaskNotificationEvent.Kind.*;
+import static com.codegym.jira.login.internal.web.UserTestData.GUEST_ID;
+import static com.codegym.jira.login.internal.web.UserTestData.USER_ID;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//  digests are flushed by test thread only (app.mail-digest.flush is off in test profile)
+class NotificationDigestTest extends AbstractControllerTest {
+    //  active members: user (developer, tester), admin (reviewer)
+    private static final long TASK1_ID = 1;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private NotificationDigest digest;
+
+    @Autowired
+    private NotificationRecipients notificationRecipients;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //  profiles are reset by test scripts
+    @BeforeEach
+    void rebuildRecipients() {
+        notificationRecipients.rebuild();
+    }
+
+    @Test
+    void oneDigestPerUser() {
+        //  user: assigned + status_changed + commented, admin: none of them
+        jdbcTemplate.update("UPDATE profile SET mail_notifications = 1 | 64 | 128 WHERE id = ?", USER_ID);
+        notificationRecipients.rebuild();
+        publishEvents();
+        assertEquals(3, count("mail_digest_event"));
+
+        jdbcTemplate.update("UPDATE mail_digest_event SET created = now() - interval '1 hour'");
+        digest.flush();
+        assertEquals(0, count("mail_digest_event"));
+        List<String> contents = jdbcTemplate.queryForList("SELECT content FROM mail_outbox WHERE template = ?",
+                String.class, NotificationDigest.TEMPLATE);
+        assertEquals(1, contents.size());
+        String content = contents.get(0);
+        assertTrue(content.contains("changed status to in_progress"));
+        assertTrue(content.contains("assigned userDisplayName as task_developer"));
+        assertTrue(content.contains("commented: Looks good"));
+        //  digests wait for single mails
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT priority FROM mail_outbox WHERE template = ?",
+                Integer.class, NotificationDigest.TEMPLATE));
+    }
+
+    @Test
+    void filterByProfile() {
+        //  user: assigned only, admin: none
+        publishEvents();
+        assertEquals(1, count("mail_digest_event"));
+        jdbcTemplate.update("UPDATE mail_digest_event SET created = now() - interval '1 hour'");
+        digest.flush();
+        assertEquals(0, count("mail_digest_event"));
+        String content = jdbcTemplate.queryForObject("SELECT content FROM mail_outbox WHERE template = ?",
+                String.class, NotificationDigest.TEMPLATE);
+        assertTrue(content.contains("assigned userDisplayName as task_developer"));
+        assertFalse(content.contains("commented"));
+    }
+
+    @Test
+    void windowNotExpired() {
+        publishEvents();
+        digest.flush();
+        assertEquals(1, count("mail_digest_event"));
+        assertEquals(0, count("mail_outbox"));
+    }
+
+    //  settings changed after the event was stored
+    @Test
+    void filterOnFlush() {
+        publishEvents();
+        jdbcTemplate.update("UPDATE profile SET mail_notifications = 0 WHERE id = ?", USER_ID);
+        notificationRecipients.rebuild();
+        jdbcTemplate.update("UPDATE mail_digest_event SET created = now() - interval '1 hour'");
+        digest.flush();
+        assertEquals(0, count("mail_digest_event"));
+        assertEquals(0, count("mail_outbox"));
+    }
+
+    private void publishEvents() {
+        eventPublisher.publishEvent(new TaskNotificationEvent(List.of(TASK1_ID), STATUS_CHANGED, GUEST_ID, "in_progress"));
+        eventPublisher.publishEvent(new TaskNotificationEvent(List.of(TASK1_ID), ASSIGNED, GUEST_ID, "task_developer", USER_ID));
+        eventPublisher.publishEvent(new TaskNotificationEvent(List.of(TASK1_ID), COMMENTED, GUEST_ID, "Looks good"));
+    }
+
+    private int count(String table) {
+        Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+        return count == null ? 0 : count;
+    }
+}
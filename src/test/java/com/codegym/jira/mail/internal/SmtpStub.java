@@ -0,0 +1,141 @@
+package com.codegym.jira.mail.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//  minimal in-process SMTP server: accepts all mails except rejected recipients and keeps them in memory
+class SmtpStub implements AutoCloseable {
+    record Message(String from, List<String> recipients, String data) {
+    }
+
+    private final ServerSocket serverSocket;
+    private final List<Message> messages = new CopyOnWriteArrayList<>();
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private SmtpStub(ServerSocket serverSocket) {
+        this.serverSocket = serverSocket;
+        Thread acceptor = new Thread(this::accept, "smtp-stub");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    static SmtpStub start() {
+        try {
+            return new SmtpStub(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    List<Message> getMessages() {
+        return messages;
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    void reject(String email) {
+        rejected.add(email);
+    }
+
+    void reset() {
+        messages.clear();
+        rejected.clear();
+        connections.set(0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                connections.incrementAndGet();
+                session(socket);
+            } catch (IOException e) {
+                //  closed server or broken session
+            }
+        }
+    }
+
+    private void session(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        reply(out, "220 localhost SMTP stub");
+        String from = null;
+        List<String> recipients = new ArrayList<>();
+        for (String line; (line = in.readLine()) != null; ) {
+            String command = line.length() < 4 ? line : line.substring(0, 4).toUpperCase(Locale.ENGLISH);
+            switch (command) {
+                case "MAIL" -> {
+                    from = address(line);
+                    recipients.clear();
+                    reply(out, "250 OK");
+                }
+                case "RCPT" -> {
+                    String to = address(line);
+                    if (rejected.contains(to)) {
+                        reply(out, "550 Mailbox unavailable");
+                    } else {
+                        recipients.add(to);
+                        reply(out, "250 OK");
+                    }
+                }
+                case "DATA" -> {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    for (String dataLine; (dataLine = in.readLine()) != null && !".".equals(dataLine); ) {
+                        data.append(dataLine.startsWith("..") ? dataLine.substring(1) : dataLine).append('\n');
+                    }
+                    messages.add(new Message(from, List.copyOf(recipients), data.toString()));
+                    reply(out, "250 OK");
+                }
+                case "RSET" -> {
+                    from = null;
+                    recipients.clear();
+                    reply(out, "250 OK");
+                }
+                case "QUIT" -> {
+                    reply(out, "221 Bye");
+                    return;
+                }
+                //  EHLO, HELO, NOOP: no extensions
+                default -> reply(out, "250 localhost");
+            }
+        }
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>', start);
+        return start < 0 || end < 0 ? "" : line.substring(start + 1, end);
+    }
+
+    private static void reply(Writer out, String reply) throws IOException {
+        out.write(reply + "\r\n");
+        out.flush();
+    }
+}
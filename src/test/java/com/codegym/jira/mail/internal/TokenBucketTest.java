@@ -0,0 +1,40 @@
+package com.codegym.jira.mail.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+    private final TokenBucket bucket = new TokenBucket(10, 20, now::get);
+
+    @Test
+    void burst() {
+        assertEquals(0, bucket.reserve(15));
+        assertEquals(0, bucket.reserve(5));
+        assertEquals(SECOND / 10, bucket.reserve(1));
+    }
+
+    @Test
+    void debt() {
+        assertEquals(SECOND, bucket.reserve(30));
+        //  next caller waits for the previous debt too
+        assertEquals(2 * SECOND, bucket.reserve(10));
+    }
+
+    @Test
+    void refill() {
+        bucket.reserve(20);
+        now.addAndGet(SECOND);
+        assertEquals(0, bucket.reserve(10));
+        //  refill is limited by burst
+        now.addAndGet(10 * SECOND);
+        assertEquals(0, bucket.reserve(20));
+        assertEquals(SECOND / 10, bucket.reserve(1));
+    }
+}
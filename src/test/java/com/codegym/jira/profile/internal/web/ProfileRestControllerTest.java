@@ -1,8 +1,51 @@
 package com.codegym.jira.profile.internal.web;
 
 import com.codegym.jira.AbstractControllerTest;
+import com.codegym.jira.bugtracking.ObjectType;
+import com.codegym.jira.profile.internal.NotificationRecipients;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithUserDetails;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.util.List;
+import java.util.Map;
+
+import static com.codegym.jira.common.util.JsonUtil.writeValue;
+import static com.codegym.jira.login.internal.web.UserTestData.*;
+import static com.codegym.jira.profile.internal.web.ProfileRestController.REST_URL;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class ProfileRestControllerTest extends AbstractControllerTest {
+    //  three_days_before_deadline
+    private static final long THREE_DAYS_MASK = 2;
+    //  active members: user, admin
+    private static final long TASK1_ID = 1;
+
+    @Autowired
+    private NotificationRecipients notificationRecipients;
+
+    @Test
+    @WithUserDetails(value = USER_MAIL)
+    void updateNotificationRecipients() throws Exception {
+        notificationRecipients.rebuild();
+        assertFalse(notificationRecipients.hasNotification(USER_ID, THREE_DAYS_MASK));
+        assertArrayEquals(new long[]{ADMIN_ID}, findTask1Recipients(GUEST_ID));
+
+        perform(MockMvcRequestBuilders.put(REST_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(writeValue(ProfileTestData.getUpdatedTo())))
+                .andExpect(status().isNoContent());
+
+        assertTrue(notificationRecipients.hasNotification(USER_ID, THREE_DAYS_MASK));
+        assertArrayEquals(new long[]{USER_ID, ADMIN_ID}, findTask1Recipients(GUEST_ID));
+        assertArrayEquals(new long[]{USER_ID}, findTask1Recipients(ADMIN_ID));
+    }
 
-}
\ No newline at end of file
+    private long[] findTask1Recipients(long authorId) {
+        Map<Long, long[]> recipients = notificationRecipients.find(ObjectType.TASK, List.of(TASK1_ID), THREE_DAYS_MASK, authorId);
+        return recipients.getOrDefault(TASK1_ID, new long[0]);
+    }
+}
@@ -0,0 +1,54 @@
+package com.codegym.jira.ref;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskWorkflowTest {
+    private static final TaskWorkflow WORKFLOW = TaskWorkflow.compile(refs(
+            new RefTo(1L, RefType.TASK_STATUS, "todo", "ToDo", "in_progress,canceled|"),
+            new RefTo(2L, RefType.TASK_STATUS, "in_progress", "In progress", "ready_for_review,canceled|task_developer"),
+            new RefTo(3L, RefType.TASK_STATUS, "ready_for_review", "Ready for review", "in_progress,review,canceled|"),
+            new RefTo(4L, RefType.TASK_STATUS, "review", "Review", "in_progress,canceled|task_reviewer"),
+            new RefTo(5L, RefType.TASK_STATUS, "canceled", "Canceled", null)));
+
+    private static Map<String, RefTo> refs(RefTo... refTos) {
+        Map<String, RefTo> refs = new LinkedHashMap<>();
+        for (RefTo refTo : refTos) {
+            refs.put(refTo.getCode(), refTo);
+        }
+        return refs;
+    }
+
+    @Test
+    void canTransition() {
+        assertTrue(WORKFLOW.canTransition("todo", "in_progress"));
+        assertTrue(WORKFLOW.canTransition("todo", "todo"));
+        assertFalse(WORKFLOW.canTransition("todo", "review"));
+        assertFalse(WORKFLOW.canTransition("canceled", "todo"));
+        assertFalse(WORKFLOW.canTransition("unknown", "todo"));
+        assertFalse(WORKFLOW.canTransition("todo", "unknown"));
+    }
+
+    @Test
+    void allowedTargets() {
+        assertEquals(List.of("in_progress", "ready_for_review", "review", "canceled"),
+                List.copyOf(WORKFLOW.allowedTargets("ready_for_review").keySet()));
+        assertEquals(List.of("canceled"), List.copyOf(WORKFLOW.allowedTargets("canceled").keySet()));
+        assertTrue(WORKFLOW.allowedTargets("unknown").isEmpty());
+        assertSame(WORKFLOW.allowedTargets("todo"), WORKFLOW.allowedTargets("todo"));
+    }
+
+    @Test
+    void assigneeUserType() {
+        assertEquals("task_developer", WORKFLOW.assigneeUserType("in_progress"));
+        assertEquals("task_reviewer", WORKFLOW.assigneeUserType("review"));
+        assertNull(WORKFLOW.assigneeUserType("todo"));
+        assertNull(WORKFLOW.assigneeUserType("canceled"));
+        assertNull(WORKFLOW.assigneeUserType("unknown"));
+    }
+}
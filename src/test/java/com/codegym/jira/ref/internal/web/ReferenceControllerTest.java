@@ -10,6 +10,7 @@ import com.codegym.jira.ref.internal.ReferenceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.security.test.context.support.WithUserDetails;
@@ -21,6 +22,7 @@ import static com.codegym.jira.ref.internal.web.ReferenceTestData.*;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -46,6 +48,32 @@ public class ReferenceControllerTest extends AbstractControllerTest {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @WithUserDetails(value = UserTestData.ADMIN_MAIL)
+    void getByTypeNotModified() throws Exception {
+        String etag = ReferenceService.getETag(RefType.TASK);
+        perform(MockMvcRequestBuilders.get(REST_URL + RefType.TASK))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        perform(MockMvcRequestBuilders.get(REST_URL + RefType.TASK)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        //  reload without changes (e.g. on another node) keeps the ETag
+        referenceService.updateRefs(RefType.TASK);
+        perform(MockMvcRequestBuilders.get(REST_URL + RefType.TASK)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        perform(MockMvcRequestBuilders.put(REST_URL + RefType.TASK + "/" + TASK_CODE)
+                .param("title", "Task UPD"))
+                .andExpect(status().isNoContent());
+        perform(MockMvcRequestBuilders.get(REST_URL + RefType.TASK)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertNotEquals(etag, ReferenceService.getETag(RefType.TASK));
+    }
+
     @Test
     @WithUserDetails(value = UserTestData.ADMIN_MAIL)
     void getByTypeByCode() throws Exception {
@@ -81,6 +109,7 @@ public class ReferenceControllerTest extends AbstractControllerTest {
                 .andDo(print())
                 .andExpect(status().isNoContent());
         REFERENCE_MATCHER.assertMatch(getRef(), getUpdated());
+        assertEquals("Task1", getRefTo().getTitle());
     }
 
     @Test
@@ -70,14 +70,14 @@ values ('finished', '2023-05-01 08:05:10', '2023-05-07 17:10:01', 'SP-1.001', 1)
        ('planning', '2023-05-10 08:07:00', null, 'SP-2.002', 2),
        ('planning', '2023-05-10 08:08:00', null, 'SP-2.003', 2);
 
-insert into TASK (TITLE, TYPE_CODE, STATUS_CODE, PROJECT_ID, SPRINT_ID, STARTPOINT)
-values ('Data', 'epic', 'in_progress', 1, 1, '2023-05-15 09:05:10'),
-       ('Trees', 'epic', 'in_progress', 1, 1, '2023-05-15 12:05:10'),
-       ('task-3', 'task', 'ready_for_test', 2, 5, '2023-06-14 09:28:10'),
-       ('task-4', 'task', 'ready_for_review', 2, 5, '2023-06-14 09:28:10'),
-       ('task-5', 'task', 'todo', 2, 5, '2023-06-14 09:28:10'),
-       ('task-6', 'task', 'done', 2, 5, '2023-06-14 09:28:10'),
-       ('task-7', 'task', 'canceled', 2, 5, '2023-06-14 09:28:10');
+insert into TASK (TITLE, TYPE_CODE, STATUS_CODE, PROJECT_ID, SPRINT_ID, STARTPOINT, DESCRIPTION, PRIORITY_CODE, ESTIMATE, UPDATED)
+values ('Data', 'epic', 'in_progress', 1, 1, '2023-05-15 09:05:10', null, 'normal', 4, '2023-05-15 14:05:10'),
+       ('Trees', 'epic', 'in_progress', 1, 1, '2023-05-15 12:05:10', 'Trees desc', 'normal', 4, '2023-05-15 12:05:10'),
+       ('task-3', 'task', 'ready_for_test', 2, 5, '2023-06-14 09:28:10', null, null, null, null),
+       ('task-4', 'task', 'ready_for_review', 2, 5, '2023-06-14 09:28:10', null, null, null, null),
+       ('task-5', 'task', 'todo', 2, 5, '2023-06-14 09:28:10', null, null, null, null),
+       ('task-6', 'task', 'done', 2, 5, '2023-06-14 09:28:10', null, null, null, null),
+       ('task-7', 'task', 'canceled', 2, 5, '2023-06-14 09:28:10', null, null, null, null);
 
 
 insert into ACTIVITY(AUTHOR_ID, TASK_ID, UPDATED, COMMENT, TITLE, DESCRIPTION, ESTIMATE, TYPE_CODE, STATUS_CODE,
@@ -96,3 +96,7 @@ values (1, 2, 2, 'task_developer', '2023-06-14 08:35:10', '2023-06-14 08:55:00')
        (2, 2, 2, 'task_developer', '2023-06-08 07:10:00', null),
        (2, 2, 1, 'task_developer', '2023-06-09 14:48:00', null),
        (2, 2, 1, 'task_tester', '2023-06-10 16:37:00', null);
+
+select FILL_TASK_TIMING();
+
+select FILL_CLOSURES();